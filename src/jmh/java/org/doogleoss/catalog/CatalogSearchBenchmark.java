@@ -0,0 +1,84 @@
+package org.doogleoss.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Type-ahead and search latency over the bundled catalog repeated to the
+ * given size, and the cost of re-indexing one product.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CatalogSearchBenchmark {
+
+    @Param({"12", "10000"})
+    int products;
+
+    CatalogSnapshot snapshot;
+    Product changed;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Product> bundled;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("catalog/products.json")) {
+            bundled = new ObjectMapper().readValue(in, new TypeReference<List<Product>>() {});
+        }
+        List<Product> catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product p = bundled.get(i % bundled.size());
+            // A distinct word per copy, so the term dictionary grows with the catalog
+            catalog.add(new Product(p.id() + "-" + i, p.name() + " edition" + i, p.category(), p.subcategory(),
+                                    p.price(), p.originalPrice(), p.description(), p.details(), p.images(),
+                                    p.rating(), p.reviewCount(), p.inStock(), p.stockCount(), p.brand(),
+                                    p.featured(), p.bestSeller()));
+        }
+        snapshot = new CatalogSnapshot(catalog);
+        Product first = catalog.get(0);
+        changed = new Product(first.id(), first.name(), first.category(), first.subcategory(), first.price(),
+                              first.originalPrice(), first.description() + " Now with vetiver.", first.details(),
+                              first.images(), first.rating(), first.reviewCount(), first.inStock(),
+                              first.stockCount(), first.brand(), first.featured(), first.bestSeller());
+    }
+
+    @Benchmark
+    public List<String> autocomplete() {
+        return snapshot.complete("sa", 8);
+    }
+
+    @Benchmark
+    public List<SearchHit> searchTerm() {
+        return snapshot.search("sandalwood", 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> searchWhileTyping() {
+        return snapshot.search("rose oud sa", 20);
+    }
+
+    @Benchmark
+    public CatalogSnapshot reindexOne() {
+        return snapshot.with(changed);
+    }
+}
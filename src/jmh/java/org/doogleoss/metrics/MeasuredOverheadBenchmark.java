@@ -0,0 +1,142 @@
+package org.doogleoss.metrics;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Cost of {@link MeasuredInterceptor} around the cheapest call of the login
+ * path: a WebAuthn provider lookup answered from the credential cache.
+ * Compare {@code intercepted} with {@code direct}; a full passkey login takes
+ * milliseconds (see {@code PasskeyCeremonyLoadTest}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MeasuredOverheadBenchmark {
+
+    final Map<String, String> cache = new ConcurrentHashMap<>();
+    MeasuredInterceptor interceptor;
+    InvocationContext context;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        cache.put("credential", "record");
+        interceptor = new MeasuredInterceptor();
+        // The registry Quarkus uses for /q/metrics
+        interceptor.registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // Provider calls also feed the readiness check
+        interceptor.recentLatencies = new RecentLatencies();
+        interceptor.recentLatencies.windowSlots = 10;
+        interceptor.recentLatencies.init();
+        interceptor.readinessMeters = Set.of("luxe.webauthn.provider");
+        context = new CachedLookupContext(MeasuredOverheadBenchmark.class.getMethod("findByCredentialId", String.class));
+    }
+
+    public Uni<String> findByCredentialId(String credentialId) {
+        return Uni.createFrom().item(cache.get(credentialId));
+    }
+
+    @Benchmark
+    public void direct(Blackhole blackhole) {
+        findByCredentialId("credential").subscribe().with(blackhole::consume);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void intercepted(Blackhole blackhole) throws Exception {
+        ((Uni<String>) interceptor.measure(context)).subscribe().with(blackhole::consume);
+    }
+
+    private class CachedLookupContext implements InvocationContext {
+
+        private static final Measured BINDING = new Measured() {
+            @Override
+            public String value() {
+                return "luxe.webauthn.provider";
+            }
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return Measured.class;
+            }
+        };
+
+        private final Method method;
+        private final Map<String, Object> contextData = new HashMap<>();
+
+        CachedLookupContext(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object proceed() {
+            return findByCredentialId("credential");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Annotation> T getInterceptorBinding(Class<T> annotationType) {
+            return (T) BINDING;
+        }
+
+        @Override
+        public Object getTarget() {
+            return MeasuredOverheadBenchmark.this;
+        }
+
+        @Override
+        public Object getTimer() {
+            return null;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Constructor<?> getConstructor() {
+            return null;
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return new Object[] {"credential"};
+        }
+
+        @Override
+        public void setParameters(Object[] params) {
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            return contextData;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.doogleoss.order;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Every thread buys one unit of the same product and gives it back, as in a
+ * flash sale on a best-seller. Striped reservations against one atomic
+ * counter and against a lock, which is how a row lock serializes buyers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HotProductStockBenchmark {
+
+    static final long STOCK = 1_000_000;
+
+    StripedStock striped;
+    AtomicLong single;
+    long locked;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        striped = new StripedStock(STOCK, 2 * Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+        single = new AtomicLong(STOCK);
+        locked = STOCK;
+    }
+
+    @Benchmark
+    public boolean striped() {
+        boolean reserved = striped.tryReserve(1);
+        if (reserved) {
+            striped.release(1);
+        }
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean singleCounter() {
+        long units = single.get();
+        while (units >= 1) {
+            if (single.compareAndSet(units, units - 1)) {
+                single.incrementAndGet();
+                return true;
+            }
+            units = single.get();
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean locked() {
+        synchronized (this) {
+            if (locked < 1) {
+                return false;
+            }
+            locked--;
+        }
+        synchronized (this) {
+            locked++;
+        }
+        return true;
+    }
+}
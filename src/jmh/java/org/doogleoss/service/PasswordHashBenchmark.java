@@ -0,0 +1,53 @@
+package org.doogleoss.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.elytron.security.common.BcryptUtil;
+
+/**
+ * Password checks of every login and hashing of every registration, per bcrypt
+ * cost, as {@link PasswordHasher} runs them on its pool. Each cost step doubles
+ * the time, so these run in milliseconds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class PasswordHashBenchmark {
+
+    static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "12", "14"})
+    int cost;
+
+    String passwordHash;
+
+    @Setup
+    public void setup() {
+        passwordHash = BcryptUtil.bcryptHash(PASSWORD, cost);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return BcryptUtil.matches(PASSWORD, passwordHash);
+    }
+
+    @Benchmark
+    public String hash() {
+        return BcryptUtil.bcryptHash(PASSWORD, cost);
+    }
+}
@@ -0,0 +1,111 @@
+package org.doogleoss.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.doogleoss.UserResource.ErrorResponse;
+import org.doogleoss.dto.UserResponse;
+import org.doogleoss.entity.LuxeUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Response mapping and JSON serialization behind every user endpoint, and
+ * the body of a successful versus a refused login.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class UserResponseBenchmark {
+
+    UserService userService;
+    LuxeUser user;
+    UserResponse response;
+    ErrorResponse error;
+    ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        userService = new UserService();
+        user = new LuxeUser("bench-user", "First", "Last", "bench@example.com");
+        user.id = 42L;
+        response = userService.toUserResponse(user);
+        error = new ErrorResponse("Invalid username or password");
+        // Same settings as the ObjectMapper Quarkus configures
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                                         .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public UserResponse toUserResponse() {
+        return userService.toUserResponse(user);
+    }
+
+    @Benchmark
+    public byte[] serializeUserResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeErrorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(error);
+    }
+
+    // Body of an answered login, success and refusal. Compare with -prof gc: a refusal
+    // used to cost an exception with its stack trace, a message copy and JSON mapping
+
+    @Benchmark
+    public byte[] successfulLogin() throws JsonProcessingException {
+        UserResult result = succeed();
+        return objectMapper.writeValueAsBytes(result.user());
+    }
+
+    @Benchmark
+    public byte[] refusedLoginByException() throws JsonProcessingException {
+        try {
+            refuseByException();
+            return null;
+        } catch (IllegalArgumentException e) {
+            return objectMapper.writeValueAsBytes(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public byte[] refusedLoginByResult() throws JsonProcessingException {
+        UserResult result = refuse();
+        return result.succeeded() ? objectMapper.writeValueAsBytes(result.user()) : result.error().json();
+    }
+
+    // Not inlined, as a service call would not be: the exception really leaves its method
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    UserResult succeed() {
+        return UserResult.of(userService.toUserResponse(user));
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    void refuseByException() {
+        throw new IllegalArgumentException("Invalid username or password");
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    UserResult refuse() {
+        return UserResult.failure(UserError.INVALID_CREDENTIALS);
+    }
+}
@@ -0,0 +1,59 @@
+package org.doogleoss.webauthn;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord;
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord.RequiredPersistedData;
+
+/**
+ * Entity to record mapping done on every WebAuthn login, and the reverse on
+ * every registration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WebAuthnCredentialBenchmark {
+
+    WebAuthnCredential credential;
+    WebAuthnCredentialRecord credentialRecord;
+
+    @Setup
+    public void setup() {
+        // An ES256 public key is 77 bytes in COSE form
+        byte[] publicKey = new byte[77];
+        ThreadLocalRandom.current().nextBytes(publicKey);
+        credentialRecord = WebAuthnCredentialRecord.fromRequiredPersistedData(
+            new RequiredPersistedData("bench-user", UUID.randomUUID().toString(), UUID.randomUUID(), publicKey, -7, 42));
+        User user = new User();
+        user.username = "bench-user";
+        credential = new WebAuthnCredential(credentialRecord, user);
+    }
+
+    @Benchmark
+    public WebAuthnCredentialRecord toWebAuthnCredentialRecord() {
+        return credential.toWebAuthnCredentialRecord();
+    }
+
+    @Benchmark
+    public WebAuthnCredential fromWebAuthnCredentialRecord() {
+        User user = new User();
+        user.username = credentialRecord.getUsername();
+        return new WebAuthnCredential(credentialRecord, user);
+    }
+}
@@ -0,0 +1,92 @@
+#!/usr/bin/env bash
+####
+# Measures cold start of the container images: the time from `docker run` to the first successful
+# GET /q/health, and to the first response of GET /api/users/me (a 401 counts, it is served once
+# the REST and security layers are up). Each image is started RUNS times against one PostgreSQL
+# container; the median and the worst run are reported.
+#
+# Build the images first:
+#
+# ./mvnw package && docker build -f src/main/docker/Dockerfile.jvm -t quarkus/passkey-ui-jvm .
+# ./mvnw package -Pappcds && docker build -f src/main/docker/Dockerfile.jvm-appcds -t quarkus/passkey-ui-appcds .
+# ./mvnw package -Dnative && docker build -f src/main/docker/Dockerfile.native -t quarkus/passkey-ui .
+#
+# Then run:
+#
+# RUNS=10 src/main/docker/startup-benchmark.sh quarkus/passkey-ui-jvm quarkus/passkey-ui-appcds quarkus/passkey-ui
+#
+# CPUS and MEMORY (passed to docker run --cpus and --memory) default to the limits of a small pod.
+###
+set -euo pipefail
+
+RUNS=${RUNS:-10}
+CPUS=${CPUS:-1}
+MEMORY=${MEMORY:-512m}
+PORT=${PORT:-18080}
+NETWORK=passkey-ui-startup
+DATABASE=passkey-ui-startup-db
+APP=passkey-ui-startup-app
+
+if [ $# -eq 0 ]; then
+  echo "Usage: $0 image..." >&2
+  exit 1
+fi
+
+cleanup() {
+  docker rm -f "$APP" "$DATABASE" >/dev/null 2>&1 || true
+  docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+cleanup
+
+now_ms() {
+  date +%s%3N
+}
+
+status() {
+  curl -s -o /dev/null -m 1 -w '%{http_code}' "http://localhost:$PORT$1" || true
+}
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name "$DATABASE" --network "$NETWORK" \
+  -e POSTGRES_USER=luxe -e POSTGRES_PASSWORD=luxe -e POSTGRES_DB=luxe postgres:17 >/dev/null
+until docker exec "$DATABASE" pg_isready -U luxe -d luxe >/dev/null 2>&1; do
+  sleep 0.2
+done
+
+printf '%-40s %14s %14s %14s %14s\n' image "health p50 ms" "health max ms" "/me p50 ms" "/me max ms"
+for image in "$@"; do
+  health=()
+  me=()
+  for ((run = 0; run < RUNS; run++)); do
+    started=$(now_ms)
+    docker run -d --name "$APP" --network "$NETWORK" -p "$PORT:8080" --cpus "$CPUS" --memory "$MEMORY" \
+      -e QUARKUS_DATASOURCE_JDBC_URL="jdbc:postgresql://$DATABASE:5432/luxe" \
+      -e QUARKUS_DATASOURCE_REACTIVE_URL="postgresql://$DATABASE:5432/luxe" \
+      -e QUARKUS_DATASOURCE_USERNAME=luxe -e QUARKUS_DATASOURCE_PASSWORD=luxe \
+      "$image" >/dev/null
+    healthy=""
+    answered=""
+    while [ -z "$healthy" ] || [ -z "$answered" ]; do
+      if [ $(($(now_ms) - started)) -gt 120000 ]; then
+        echo "$image did not start within 2 minutes" >&2
+        docker logs "$APP" >&2
+        exit 1
+      fi
+      if [ -z "$healthy" ] && [ "$(status /q/health)" = 200 ]; then
+        healthy=$(($(now_ms) - started))
+      fi
+      if [ -z "$answered" ] && [ "$(status /api/users/me)" != 000 ]; then
+        answered=$(($(now_ms) - started))
+      fi
+      sleep 0.01
+    done
+    health+=("$healthy")
+    me+=("$answered")
+    docker rm -f "$APP" >/dev/null
+  done
+  median() { printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+  worst() { printf '%s\n' "$@" | sort -n | tail -1; }
+  printf '%-40s %14s %14s %14s %14s\n' "$image" "$(median "${health[@]}")" "$(worst "${health[@]}")" \
+    "$(median "${me[@]}")" "$(worst "${me[@]}")"
+done
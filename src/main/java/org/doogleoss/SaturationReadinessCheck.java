@@ -0,0 +1,189 @@
+package org.doogleoss;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.doogleoss.metrics.RecentLatencies;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+import org.jboss.logging.Logger;
+import org.jboss.threads.EnhancedQueueExecutor;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSourceMetrics;
+import io.quarkus.runtime.ExecutorRecorder;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Reports the instance as not ready while it is saturated, so the load
+ * balancer sends its traffic elsewhere instead of letting it time out.
+ *
+ * Every {@code luxe.readiness.sample-interval}, on the event loop so that a
+ * flooded worker pool cannot delay it, samples the average wait for a
+ * database connection and the threads waiting for one, the depth of the
+ * worker queue, and the p99 of the {@code UserService} and WebAuthn provider
+ * calls ({@link RecentLatencies}). Each is divided by its threshold. The
+ * check goes DOWN after {@code down-after} samples in a row with one of them
+ * at 1 or more, and UP again after {@code up-after} samples with all of them
+ * under {@code recover-ratio}. Sampling only reads counters into fields;
+ * a probe reads the fields.
+ */
+@Readiness
+@ApplicationScoped
+public class SaturationReadinessCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(SaturationReadinessCheck.class);
+    private static final String[] SIGNALS = {"pool wait", "pool waiters", "worker queue", "p99 latency"};
+
+    @ConfigProperty(name = "luxe.readiness.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "luxe.readiness.sample-interval", defaultValue = "1s")
+    Duration sampleInterval;
+
+    @ConfigProperty(name = "luxe.readiness.pool.max-wait", defaultValue = "200ms")
+    Duration maxPoolWait;
+
+    @ConfigProperty(name = "luxe.readiness.pool.max-awaiting", defaultValue = "20")
+    int maxPoolAwaiting;
+
+    @ConfigProperty(name = "luxe.readiness.worker.max-queue", defaultValue = "200")
+    int maxWorkerQueue;
+
+    @ConfigProperty(name = "luxe.readiness.latency.max-p99", defaultValue = "2s")
+    Duration maxP99;
+
+    @ConfigProperty(name = "luxe.readiness.latency.min-samples", defaultValue = "50")
+    int minSamples;
+
+    @ConfigProperty(name = "luxe.readiness.down-after", defaultValue = "3")
+    int downAfter;
+
+    @ConfigProperty(name = "luxe.readiness.up-after", defaultValue = "5")
+    int upAfter;
+
+    @ConfigProperty(name = "luxe.readiness.recover-ratio", defaultValue = "0.5")
+    double recoverRatio;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    RecentLatencies recentLatencies;
+
+    private EnhancedQueueExecutor worker;
+    private long acquired;
+    private long blockedNanos;
+    private int overloadedSamples;
+    private int calmSamples;
+
+    // Written by the sampler only
+    private volatile boolean ready = true;
+    private volatile long sampledAt;
+    private volatile long poolActive;
+    private volatile long poolAwaiting;
+    private volatile long poolWaitNanos;
+    private volatile int workerQueue = -1;
+    private volatile long p99Nanos = -1;
+    private volatile int worstSignal;
+    private volatile double saturation;
+
+    @PostConstruct
+    void init() {
+        Executor executor = ExecutorRecorder.getCurrent();
+        // Absent in some test and dev setups: the queue is then not sampled
+        worker = executor instanceof EnhancedQueueExecutor queue ? queue : null;
+        sampledAt = System.nanoTime();
+    }
+
+    @NonBlocking
+    @Scheduled(every = "${luxe.readiness.sample-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sample() {
+        if (!enabled) {
+            return;
+        }
+        AgroalDataSourceMetrics pool = dataSource.getMetrics();
+        long acquiredNow = pool.acquireCount();
+        long blockedNow = pool.blockingTimeTotal().toNanos();
+        long waitNanos = acquiredNow > acquired ? (blockedNow - blockedNanos) / (acquiredNow - acquired) : 0;
+        acquired = acquiredNow;
+        blockedNanos = blockedNow;
+        long awaiting = pool.awaitingCount();
+        int queue = worker == null ? -1 : worker.getQueueSize();
+        long p99 = recentLatencies.percentile(0.99, minSamples);
+        recentLatencies.rotate();
+
+        int worst = 0;
+        double load = (double) waitNanos / maxPoolWait.toNanos();
+        double signal = (double) awaiting / maxPoolAwaiting;
+        if (signal > load) {
+            load = signal;
+            worst = 1;
+        }
+        signal = (double) queue / maxWorkerQueue;
+        if (signal > load) {
+            load = signal;
+            worst = 2;
+        }
+        signal = (double) p99 / maxP99.toNanos();
+        if (signal > load) {
+            load = signal;
+            worst = 3;
+        }
+
+        poolActive = pool.activeCount();
+        poolAwaiting = awaiting;
+        poolWaitNanos = waitNanos;
+        workerQueue = queue;
+        p99Nanos = p99;
+        worstSignal = worst;
+        saturation = load;
+        sampledAt = System.nanoTime();
+        transition(load, worst);
+    }
+
+    private void transition(double load, int worst) {
+        if (load >= 1) {
+            calmSamples = 0;
+            if (++overloadedSamples >= downAfter && ready) {
+                ready = false;
+                LOG.warnf("Saturated (%s at %.0f%% of its threshold), reporting not ready", SIGNALS[worst], load * 100);
+            }
+        } else if (load < recoverRatio) {
+            overloadedSamples = 0;
+            if (++calmSamples >= upAfter && !ready) {
+                ready = true;
+                LOG.infof("No longer saturated, reporting ready");
+            }
+        } else {
+            // Between the two thresholds: keep the current state
+            overloadedSamples = 0;
+            calmSamples = 0;
+        }
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        if (!enabled) {
+            return HealthCheckResponse.up("saturation");
+        }
+        // A sampler that stopped running is a saturated event loop
+        boolean stale = System.nanoTime() - sampledAt > 5 * sampleInterval.toNanos();
+        return HealthCheckResponse.named("saturation")
+                                  .status(ready && !stale)
+                                  .withData("saturation", String.format("%.2f", saturation))
+                                  .withData("worstSignal", SIGNALS[worstSignal])
+                                  .withData("poolActive", poolActive)
+                                  .withData("poolAwaiting", poolAwaiting)
+                                  .withData("poolWaitMillis", poolWaitNanos / 1_000_000)
+                                  .withData("workerQueue", workerQueue)
+                                  .withData("p99Millis", p99Nanos < 0 ? -1 : p99Nanos / 1_000_000)
+                                  .build();
+    }
+}
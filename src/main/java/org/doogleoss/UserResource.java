@@ -1,11 +1,21 @@
 package org.doogleoss;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.doogleoss.dto.ImportReport;
 import org.doogleoss.dto.LoginRequest;
 import org.doogleoss.dto.UserRegistrationRequest;
-import org.doogleoss.dto.UserResponse;
+import org.doogleoss.service.SaturatedException;
+import org.doogleoss.service.UserError;
+import org.doogleoss.service.UserImportService;
+import org.doogleoss.service.UserResult;
 import org.doogleoss.service.UserService;
+import org.doogleoss.web.AdmissionControl;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.annotation.security.PermitAll;
+import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
@@ -20,22 +30,40 @@ import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 
 @Path("/api/users")
+@RunOnVirtualThread
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class UserResource {
     
+    private static final byte[] TOO_MANY_ATTEMPTS =
+        "{\"error\":\"Too many attempts, retry later\"}".getBytes(StandardCharsets.UTF_8);
+    
     @Inject
     UserService userService;
     
+    @Inject
+    UserImportService userImportService;
+
+    @Inject
+    AdmissionControl admissionControl;
+    
     @POST
     @Path("/register")
     @PermitAll
     public Response registerUser(UserRegistrationRequest request) {
+        long retryAfter = admissionControl.admitUsername(request == null ? null : request.username);
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
         try {
-            UserResponse user = userService.registerUser(request);
-            return Response.status(Response.Status.CREATED).entity(user).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.BAD_REQUEST)
+            UserResult result = userService.registerUser(request);
+            if (!result.succeeded()) {
+                return error(result.error());
+            }
+            return Response.status(Response.Status.CREATED).entity(result.user()).build();
+        } catch (SaturatedException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
                 .entity(new ErrorResponse(e.getMessage()))
                 .build();
         } catch (Exception e) {
@@ -49,11 +77,15 @@ public class UserResource {
     @Path("/login")
     @PermitAll
     public Response loginUser(LoginRequest request) {
+        long retryAfter = admissionControl.admitUsername(request == null ? null : request.username);
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
         try {
-            UserResponse user = userService.loginUser(request);
-            return Response.ok(user).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.UNAUTHORIZED)
+            return ok(userService.loginUser(request));
+        } catch (SaturatedException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
                 .entity(new ErrorResponse(e.getMessage()))
                 .build();
         } catch (Exception e) {
@@ -69,12 +101,7 @@ public class UserResource {
     public Response getCurrentUser(@Context SecurityContext ctx) {
         try {
             String username = ctx.getUserPrincipal().getName();
-            UserResponse user = userService.getUserByUsername(username);
-            return Response.ok(user).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                .entity(new ErrorResponse(e.getMessage()))
-                .build();
+            return ok(userService.getCurrentUser(username));
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity(new ErrorResponse("Failed to fetch user: " + e.getMessage()))
@@ -87,12 +114,7 @@ public class UserResource {
     // @RolesAllowed("user")
     public Response getUserById(@PathParam("id") Long id) {
         try {
-            UserResponse user = userService.getUserById(id);
-            return Response.ok(user).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                .entity(new ErrorResponse(e.getMessage()))
-                .build();
+            return ok(userService.getUserById(id));
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity(new ErrorResponse("Failed to fetch user: " + e.getMessage()))
@@ -105,10 +127,10 @@ public class UserResource {
     // @RolesAllowed("user")
     public Response updateUser(@PathParam("id") Long id, UserRegistrationRequest request) {
         try {
-            UserResponse user = userService.updateUser(id, request);
-            return Response.ok(user).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
+            return ok(userService.updateUser(id, request));
+        } catch (SaturatedException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
                 .entity(new ErrorResponse(e.getMessage()))
                 .build();
         } catch (Exception e) {
@@ -118,6 +140,62 @@ public class UserResource {
         }
     }
     
+    @POST
+    @Path("/import")
+    @RolesAllowed("admin")
+    @Consumes("application/x-ndjson")
+    public Response importUsersNdjson(InputStream body) {
+        return importUsers(body, UserImportService.Format.NDJSON);
+    }
+    
+    @POST
+    @Path("/import")
+    @RolesAllowed("admin")
+    @Consumes("text/csv")
+    public Response importUsersCsv(InputStream body) {
+        return importUsers(body, UserImportService.Format.CSV);
+    }
+    
+    private Response importUsers(InputStream body, UserImportService.Format format) {
+        try {
+            ImportReport report = userImportService.importUsers(body, format);
+            if (report.aborted != null) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(report).build();
+            }
+            return Response.ok(report).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(new ErrorResponse("Import failed: " + e.getMessage()))
+                .build();
+        }
+    }
+    
+    private static Response ok(UserResult result) {
+        return result.succeeded() ? Response.ok(result.user()).build() : error(result.error());
+    }
+    
+    /**
+     * Expected failures answer with their pre-serialized body: no exception, no JSON mapping
+     */
+    private static Response error(UserError error) {
+        return Response.status(error.status())
+            .type(MediaType.APPLICATION_JSON_TYPE)
+            .entity(error.json())
+            .build();
+    }
+    
+    private static Response tooManyAttempts(long retryAfter) {
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+            .header("Retry-After", Long.toString(retryAfter))
+            .type(MediaType.APPLICATION_JSON_TYPE)
+            .entity(TOO_MANY_ATTEMPTS)
+            .build();
+    }
+    
     // Helper class for error responses
     public static class ErrorResponse {
         public String error;
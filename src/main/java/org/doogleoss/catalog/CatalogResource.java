@@ -0,0 +1,154 @@
+package org.doogleoss.catalog;
+
+import java.util.List;
+
+import org.doogleoss.UserResource.ErrorResponse;
+import org.doogleoss.dto.ProductPage;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/api/catalog")
+@Produces(MediaType.APPLICATION_JSON)
+public class CatalogResource {
+
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_SUGGESTIONS = PrefixTrie.TOP;
+
+    @Inject
+    CatalogService catalogService;
+
+    @GET
+    @Path("/products")
+    public Response products(@QueryParam("category") String category,
+                             @QueryParam("subcategory") String subcategory,
+                             @QueryParam("brand") String brand,
+                             @QueryParam("minPrice") Long minPrice,
+                             @QueryParam("maxPrice") Long maxPrice,
+                             @QueryParam("sort") String sort,
+                             @QueryParam("page") @DefaultValue("0") int page,
+                             @QueryParam("size") @DefaultValue("24") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE))
+                .build();
+        }
+        try {
+            ProductPage products = catalogService.find(category, subcategory, brand, minPrice, maxPrice,
+                                                       ProductSort.fromParam(sort), page, size);
+            return Response.ok(products).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+
+    @GET
+    @Path("/products/{id}")
+    public Response product(@PathParam("id") String id) {
+        Product product = catalogService.snapshot().byId(id);
+        if (product == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ErrorResponse("Product not found"))
+                .build();
+        }
+        return Response.ok(product).build();
+    }
+
+    @PUT
+    @Path("/products/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @RolesAllowed("admin")
+    public Response upsert(@PathParam("id") String id, Product product) {
+        if (product == null || !id.equals(product.id())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse("Product id must match the path"))
+                .build();
+        }
+        // Every snapshot index is keyed by these
+        if (isBlank(product.name()) || isBlank(product.category()) || isBlank(product.subcategory())
+            || isBlank(product.brand())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse("name, category, subcategory and brand are required"))
+                .build();
+        }
+        return Response.ok(catalogService.upsert(product)).build();
+    }
+
+    @DELETE
+    @Path("/products/{id}")
+    @RolesAllowed("admin")
+    public Response remove(@PathParam("id") String id) {
+        if (!catalogService.remove(id)) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ErrorResponse("Product not found"))
+                .build();
+        }
+        return Response.noContent().build();
+    }
+
+    @GET
+    @Path("/search")
+    public List<SearchHit> search(@QueryParam("q") @DefaultValue("") String query,
+                                  @QueryParam("limit") @DefaultValue("20") int limit) {
+        return catalogService.snapshot().search(query, Math.clamp(limit, 1, MAX_PAGE_SIZE));
+    }
+
+    @GET
+    @Path("/autocomplete")
+    public List<String> autocomplete(@QueryParam("prefix") @DefaultValue("") String prefix,
+                                     @QueryParam("limit") @DefaultValue("8") int limit) {
+        return catalogService.snapshot().complete(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS));
+    }
+
+    @GET
+    @Path("/featured")
+    public List<Product> featured() {
+        return catalogService.snapshot().featured();
+    }
+
+    @GET
+    @Path("/best-sellers")
+    public List<Product> bestSellers() {
+        return catalogService.snapshot().bestSellers();
+    }
+
+    @GET
+    @Path("/categories/{category}/subcategories")
+    public List<String> subcategories(@PathParam("category") String category) {
+        return catalogService.snapshot().subcategories(category);
+    }
+
+    @GET
+    @Path("/brands")
+    public List<String> brands(@QueryParam("category") String category) {
+        return catalogService.snapshot().brands(category);
+    }
+
+    @POST
+    @Path("/reload")
+    @RolesAllowed("admin")
+    public Response reload() {
+        return Response.ok(new Reloaded(catalogService.reload())).build();
+    }
+
+    public record Reloaded(int products) {
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
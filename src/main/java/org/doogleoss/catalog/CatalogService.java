@@ -0,0 +1,147 @@
+package org.doogleoss.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.doogleoss.dto.ProductPage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Serves the product catalog from a {@link CatalogSnapshot} held in memory.
+ * Changes build a complete new snapshot off to the side and swap it in with
+ * one reference write, so readers never lock and never see half of one;
+ * writers are serialized.
+ */
+@ApplicationScoped
+public class CatalogService {
+
+    private static final Logger LOG = Logger.getLogger(CatalogService.class);
+    private static final String BUNDLED_CATALOG = "catalog/products.json";
+
+    // Read from the classpath when not set
+    @ConfigProperty(name = "luxe.catalog.location")
+    Optional<Path> location;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>(new CatalogSnapshot(List.of()));
+
+    void onStart(@Observes StartupEvent event) {
+        reload();
+    }
+
+    /**
+     * Re-reads the catalog and publishes it. Only products that changed are
+     * re-indexed for search. A catalog that fails to parse leaves the current
+     * snapshot in place.
+     */
+    public synchronized int reload() {
+        List<Product> products = read();
+        CatalogSnapshot current = snapshot.get();
+        SearchIndex searchIndex = current.searchIndex();
+        Set<String> ids = new HashSet<>();
+        List<Product> changed = new ArrayList<>();
+        for (Product product : products) {
+            ids.add(product.id());
+            if (!product.equals(current.byId(product.id()))) {
+                changed.add(product);
+            }
+        }
+        List<String> removed = current.products().stream().map(Product::id).filter(id -> !ids.contains(id)).toList();
+        if (changed.size() + removed.size() > products.size() / 4) {
+            // Cheaper to index everything again than to patch most of the index
+            searchIndex = SearchIndex.of(products);
+        } else {
+            for (Product product : changed) {
+                searchIndex = searchIndex.with(product);
+            }
+            for (String id : removed) {
+                searchIndex = searchIndex.without(id);
+            }
+        }
+        CatalogSnapshot loaded = new CatalogSnapshot(products, searchIndex);
+        snapshot.set(loaded);
+        LOG.infof("Loaded %d products into the catalog, %d changed and %d removed",
+                  loaded.size(), changed.size(), removed.size());
+        return loaded.size();
+    }
+
+    /**
+     * Adds or replaces one product until the next reload
+     */
+    public synchronized Product upsert(Product product) {
+        snapshot.set(snapshot.get().with(product));
+        return product;
+    }
+
+    public synchronized boolean remove(String id) {
+        CatalogSnapshot current = snapshot.get();
+        CatalogSnapshot updated = current.without(id);
+        snapshot.set(updated);
+        return updated != current;
+    }
+
+    public CatalogSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    public ProductPage find(String category, String subcategory, String brand,
+                            Long minPrice, Long maxPrice, ProductSort sort, int page, int size) {
+        // Already ordered: only brand and price remain to filter, in one pass
+        List<Product> candidates = snapshot.get().sorted(category, subcategory, sort);
+        // A long: a large page must not wrap around to a negative offset
+        long first = (long) page * size;
+        int total = 0;
+        List<Product> items = new ArrayList<>(size);
+        for (Product product : candidates) {
+            if ((brand != null && !brand.equals(product.brand()))
+                || (minPrice != null && product.price() < minPrice)
+                || (maxPrice != null && product.price() > maxPrice)) {
+                continue;
+            }
+            if (total >= first && items.size() < size) {
+                items.add(product);
+            }
+            total++;
+        }
+        return new ProductPage(items, total, page, size);
+    }
+
+    private List<Product> read() {
+        TypeReference<List<Product>> products = new TypeReference<>() {};
+        try {
+            if (location.isPresent()) {
+                try (InputStream in = Files.newInputStream(location.get())) {
+                    return objectMapper.readValue(in, products);
+                }
+            }
+            try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(BUNDLED_CATALOG)) {
+                if (in == null) {
+                    throw new IllegalStateException(BUNDLED_CATALOG + " is missing from the classpath");
+                }
+                return objectMapper.readValue(in, products);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.doogleoss.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable view of the whole catalog with every index the shop reads built
+ * up front: products by id, each category and subcategory pre-sorted in every
+ * {@link ProductSort}, the featured and best-seller lists, and the full-text
+ * {@link SearchIndex}. Readers only look up and slice lists, so a snapshot is
+ * shared without any locking.
+ */
+public final class CatalogSnapshot {
+
+    static final String ALL = "";
+
+    private final List<Product> products;
+    private final Map<String, Product> byId;
+    private final Map<String, Map<ProductSort, List<Product>>> sorted;
+    private final Map<String, List<String>> subcategories;
+    private final Map<String, List<String>> brands;
+    private final List<Product> featured;
+    private final List<Product> bestSellers;
+    private final SearchIndex searchIndex;
+
+    public CatalogSnapshot(List<Product> products) {
+        this(products, SearchIndex.of(products));
+    }
+
+    CatalogSnapshot(List<Product> products, SearchIndex searchIndex) {
+        this.products = List.copyOf(products);
+        this.searchIndex = searchIndex;
+
+        Map<String, Product> byId = new HashMap<>();
+        Map<String, List<Product>> byKey = new LinkedHashMap<>();
+        Map<String, TreeSet<String>> subcategories = new HashMap<>();
+        Map<String, TreeSet<String>> brands = new HashMap<>();
+        for (Product product : this.products) {
+            if (byId.put(product.id(), product) != null) {
+                throw new IllegalArgumentException("Duplicate product id: " + product.id());
+            }
+            byKey.computeIfAbsent(ALL, key -> new ArrayList<>()).add(product);
+            byKey.computeIfAbsent(product.category(), key -> new ArrayList<>()).add(product);
+            byKey.computeIfAbsent(key(product.category(), product.subcategory()), key -> new ArrayList<>()).add(product);
+            subcategories.computeIfAbsent(product.category(), key -> new TreeSet<>()).add(product.subcategory());
+            brands.computeIfAbsent(ALL, key -> new TreeSet<>()).add(product.brand());
+            brands.computeIfAbsent(product.category(), key -> new TreeSet<>()).add(product.brand());
+        }
+        this.byId = Map.copyOf(byId);
+
+        Map<String, Map<ProductSort, List<Product>>> sorted = new HashMap<>();
+        byKey.forEach((key, members) -> {
+            Map<ProductSort, List<Product>> views = new EnumMap<>(ProductSort.class);
+            for (ProductSort sort : ProductSort.values()) {
+                // List.sort is stable: ties keep catalog order, so pages do not shuffle
+                List<Product> view = new ArrayList<>(members);
+                view.sort(sort.order);
+                views.put(sort, Collections.unmodifiableList(view));
+            }
+            sorted.put(key, Collections.unmodifiableMap(views));
+        });
+        this.sorted = Map.copyOf(sorted);
+        this.subcategories = copyOf(subcategories);
+        this.brands = copyOf(brands);
+        this.featured = this.products.stream().filter(Product::featured).toList();
+        this.bestSellers = this.products.stream().filter(Product::bestSeller).toList();
+    }
+
+    /**
+     * A snapshot where the product is added, or replaces the one with its id.
+     * Only the search postings of that product are re-indexed.
+     */
+    public CatalogSnapshot with(Product product) {
+        List<Product> updated = new ArrayList<>(products.size() + 1);
+        boolean replaced = false;
+        for (Product current : products) {
+            if (current.id().equals(product.id())) {
+                updated.add(product);
+                replaced = true;
+            } else {
+                updated.add(current);
+            }
+        }
+        if (!replaced) {
+            updated.add(product);
+        }
+        return new CatalogSnapshot(updated, searchIndex.with(product));
+    }
+
+    public CatalogSnapshot without(String id) {
+        if (!byId.containsKey(id)) {
+            return this;
+        }
+        List<Product> updated = products.stream().filter(product -> !product.id().equals(id)).toList();
+        return new CatalogSnapshot(updated, searchIndex.without(id));
+    }
+
+    SearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    public List<Product> products() {
+        return products;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public Product byId(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Products of a category, or of one of its subcategories, in the given
+     * order. Both may be null; an unknown key yields an empty list.
+     */
+    public List<Product> sorted(String category, String subcategory, ProductSort sort) {
+        String key = category == null ? ALL : subcategory == null ? category : key(category, subcategory);
+        Map<ProductSort, List<Product>> views = sorted.get(key);
+        return views == null ? List.of() : views.get(sort);
+    }
+
+    public List<String> subcategories(String category) {
+        return subcategories.getOrDefault(category, List.of());
+    }
+
+    public List<String> brands(String category) {
+        return brands.getOrDefault(category == null ? ALL : category, List.of());
+    }
+
+    public List<Product> featured() {
+        return featured;
+    }
+
+    public List<Product> bestSellers() {
+        return bestSellers;
+    }
+
+    /**
+     * Products matching the query, best first
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<SearchHit> hits = new ArrayList<>();
+        searchIndex.search(query, limit).forEach((id, score) -> hits.add(new SearchHit(byId.get(id), score)));
+        return hits;
+    }
+
+    /**
+     * Words of the catalog completing the last word of the input
+     */
+    public List<String> complete(String prefix, int limit) {
+        return searchIndex.complete(prefix, limit);
+    }
+
+    private static String key(String category, String subcategory) {
+        return category + '/' + subcategory;
+    }
+
+    private static Map<String, List<String>> copyOf(Map<String, TreeSet<String>> sets) {
+        Map<String, List<String>> lists = new HashMap<>();
+        sets.forEach((key, values) -> lists.put(key, List.copyOf(values)));
+        return Map.copyOf(lists);
+    }
+}
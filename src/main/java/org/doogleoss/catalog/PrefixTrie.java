@@ -0,0 +1,178 @@
+package org.doogleoss.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent trie over the index terms for type-ahead. Every node keeps the
+ * best {@link #TOP} completions below it, so a lookup is one walk down the
+ * prefix and no subtree search. Updates copy only the nodes on the path of
+ * the changed term; the previous trie stays valid for readers that hold it.
+ */
+final class PrefixTrie {
+
+    static final int TOP = 10;
+
+    private static final Comparator<Completion> BEST_FIRST =
+        Comparator.comparingInt(Completion::weight).reversed().thenComparing(Completion::term);
+
+    /**
+     * A term and how many products contain it
+     */
+    record Completion(String term, int weight) {
+    }
+
+    private static final class Node {
+        final char[] keys;
+        final Node[] children;
+        // The term ending here, null when none does
+        final Completion own;
+        final Completion[] top;
+
+        Node(char[] keys, Node[] children, Completion own) {
+            this.keys = keys;
+            this.children = children;
+            this.own = own;
+            this.top = best(children, own);
+        }
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static final Node EMPTY = new Node(new char[0], new Node[0], null);
+
+    private final Node root;
+
+    PrefixTrie() {
+        this(EMPTY);
+    }
+
+    private PrefixTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * A trie of all the terms at once, built bottom-up in one pass over them
+     * in sorted order
+     */
+    static PrefixTrie of(Map<String, Integer> weights) {
+        String[] terms = weights.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        return terms.length == 0 ? new PrefixTrie() : new PrefixTrie(build(terms, weights, 0, terms.length, 0));
+    }
+
+    private static Node build(String[] terms, Map<String, Integer> weights, int from, int to, int depth) {
+        Completion own = null;
+        if (terms[from].length() == depth) {
+            // Sorted order puts the term equal to the prefix first
+            own = new Completion(terms[from], weights.get(terms[from]));
+            from++;
+        }
+        List<Character> keys = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (from < to) {
+            char key = terms[from].charAt(depth);
+            int end = from + 1;
+            while (end < to && terms[end].charAt(depth) == key) {
+                end++;
+            }
+            keys.add(key);
+            children.add(build(terms, weights, from, end, depth + 1));
+            from = end;
+        }
+        char[] keyArray = new char[keys.size()];
+        for (int i = 0; i < keyArray.length; i++) {
+            keyArray[i] = keys.get(i);
+        }
+        return new Node(keyArray, children.toArray(Node[]::new), own);
+    }
+
+    /**
+     * Up to {@code limit} (at most {@link #TOP}) terms starting with the
+     * prefix, most frequent first
+     */
+    List<Completion> complete(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return List.of(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    /**
+     * A trie where {@code term} has the given weight; a weight of 0 removes it
+     */
+    PrefixTrie with(String term, int weight) {
+        Node updated = with(root, term, 0, weight);
+        return new PrefixTrie(updated == null ? EMPTY : updated);
+    }
+
+    private static Node with(Node node, String term, int depth, int weight) {
+        if (depth == term.length()) {
+            Completion own = weight > 0 ? new Completion(term, weight) : null;
+            return own == null && node.keys.length == 0 ? null : new Node(node.keys, node.children, own);
+        }
+        char key = term.charAt(depth);
+        int index = Arrays.binarySearch(node.keys, key);
+        Node child = index >= 0 ? node.children[index] : EMPTY;
+        Node updated = with(child, term, depth + 1, weight);
+
+        char[] keys;
+        Node[] children;
+        if (index >= 0 && updated != null) {
+            keys = node.keys;
+            children = node.children.clone();
+            children[index] = updated;
+        } else if (index >= 0) {
+            // The branch held only this term: prune it
+            keys = new char[node.keys.length - 1];
+            children = new Node[node.children.length - 1];
+            System.arraycopy(node.keys, 0, keys, 0, index);
+            System.arraycopy(node.keys, index + 1, keys, index, keys.length - index);
+            System.arraycopy(node.children, 0, children, 0, index);
+            System.arraycopy(node.children, index + 1, children, index, children.length - index);
+        } else if (updated != null) {
+            int insert = -index - 1;
+            keys = new char[node.keys.length + 1];
+            children = new Node[node.children.length + 1];
+            System.arraycopy(node.keys, 0, keys, 0, insert);
+            System.arraycopy(node.keys, insert, keys, insert + 1, node.keys.length - insert);
+            System.arraycopy(node.children, 0, children, 0, insert);
+            System.arraycopy(node.children, insert, children, insert + 1, node.children.length - insert);
+            keys[insert] = key;
+            children[insert] = updated;
+        } else {
+            // Removing a term that is not there
+            return node == EMPTY ? null : node;
+        }
+        if (keys.length == 0 && node.own == null) {
+            return null;
+        }
+        return new Node(keys, children, node.own);
+    }
+
+    private static Completion[] best(Node[] children, Completion own) {
+        if (own == null && children.length == 1) {
+            // Inner node of a single word: same completions as below it
+            return children[0].top;
+        }
+        List<Completion> candidates = new ArrayList<>();
+        if (own != null) {
+            candidates.add(own);
+        }
+        for (Node child : children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(BEST_FIRST);
+        return candidates.subList(0, Math.min(TOP, candidates.size())).toArray(Completion[]::new);
+    }
+}
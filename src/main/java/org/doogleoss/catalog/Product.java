@@ -0,0 +1,22 @@
+package org.doogleoss.catalog;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One catalog entry, as served to the shop. Immutable so that a snapshot can
+ * be shared by every reader without copying.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Product(String id, String name, String category, String subcategory,
+                      long price, Long originalPrice, String description,
+                      List<String> details, List<String> images,
+                      double rating, int reviewCount, boolean inStock, int stockCount,
+                      String brand, boolean featured, boolean bestSeller) {
+
+    public Product {
+        details = details == null ? List.of() : List.copyOf(details);
+        images = images == null ? List.of() : List.copyOf(images);
+    }
+}
@@ -0,0 +1,37 @@
+package org.doogleoss.catalog;
+
+import java.util.Comparator;
+
+/**
+ * Orders offered by the shop, named as in its sort menu. Every snapshot index
+ * is kept pre-sorted in each of them.
+ */
+public enum ProductSort {
+
+    FEATURED("featured", Comparator.comparing(Product::featured).reversed()),
+    PRICE_LOW("price-low", Comparator.comparingLong(Product::price)),
+    PRICE_HIGH("price-high", Comparator.comparingLong(Product::price).reversed()),
+    RATING("rating", Comparator.comparingDouble(Product::rating).reversed()),
+    // The shop labels the most reviewed products as "newest"
+    NEWEST("newest", Comparator.comparingInt(Product::reviewCount).reversed());
+
+    final String param;
+    final Comparator<Product> order;
+
+    ProductSort(String param, Comparator<Product> order) {
+        this.param = param;
+        this.order = order;
+    }
+
+    public static ProductSort fromParam(String param) {
+        if (param == null || param.isEmpty()) {
+            return FEATURED;
+        }
+        for (ProductSort sort : values()) {
+            if (sort.param.equals(param)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort: " + param);
+    }
+}
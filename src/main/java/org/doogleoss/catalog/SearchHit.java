@@ -0,0 +1,4 @@
+package org.doogleoss.catalog;
+
+public record SearchHit(Product product, double score) {
+}
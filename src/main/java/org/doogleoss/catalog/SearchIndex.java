@@ -0,0 +1,276 @@
+package org.doogleoss.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable inverted index over the searchable text of the catalog, ranked
+ * with BM25 over per-field weighted term frequencies. {@link #with} and
+ * {@link #without} re-index a single product: the posting lists and trie
+ * paths of its terms are rebuilt, the other posting lists and trie nodes are
+ * shared with the previous index. The term and document maps themselves are
+ * copied, entries only, which at catalog sizes is far cheaper than indexing
+ * every product again.
+ */
+final class SearchIndex {
+
+    // BM25 saturation and length normalisation
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // A match in the name counts three times one in the description
+    private static final float NAME = 3f;
+    private static final float BRAND = 2f;
+    private static final float SUBCATEGORY = 2f;
+    private static final float TEXT = 1f;
+
+    private static final int PREFIX_EXPANSIONS = 5;
+
+    // Best score first, ties by product id
+    private static final Comparator<Map.Entry<String, Double>> RANKING =
+        Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey());
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "de", "for", "in", "of", "on", "the", "to",
+                                                         "with");
+
+    /**
+     * A product containing a term, with the weighted frequency of the term in
+     * it and the product's weighted length, so scoring needs no other lookup
+     */
+    private record Posting(String productId, float frequency, float length) {
+    }
+
+    /**
+     * What the index keeps of a product to score and remove it
+     */
+    private record Document(Map<String, Float> frequencies, float length) {
+    }
+
+    private final Map<String, Posting[]> postings;
+    private final Map<String, Document> documents;
+    private final double totalLength;
+    private final PrefixTrie trie;
+
+    SearchIndex() {
+        this(Map.of(), Map.of(), 0, new PrefixTrie());
+    }
+
+    private SearchIndex(Map<String, Posting[]> postings, Map<String, Document> documents, double totalLength,
+                        PrefixTrie trie) {
+        this.postings = postings;
+        this.documents = documents;
+        this.totalLength = totalLength;
+        this.trie = trie;
+    }
+
+    static SearchIndex of(List<Product> products) {
+        Map<String, List<Posting>> postings = new HashMap<>();
+        Map<String, Document> documents = new HashMap<>();
+        double totalLength = 0;
+        for (Product product : products) {
+            Document document = document(product);
+            documents.put(product.id(), document);
+            totalLength += document.length();
+            document.frequencies().forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new ArrayList<>())
+                .add(new Posting(product.id(), frequency, document.length())));
+        }
+        Map<String, Posting[]> arrays = new HashMap<>();
+        Map<String, Integer> weights = new HashMap<>();
+        postings.forEach((term, matches) -> {
+            arrays.put(term, matches.toArray(Posting[]::new));
+            weights.put(term, matches.size());
+        });
+        return new SearchIndex(arrays, documents, totalLength, PrefixTrie.of(weights));
+    }
+
+    /**
+     * An index where the product is (re-)indexed with its current text
+     */
+    SearchIndex with(Product product) {
+        Map<String, Posting[]> postings = new HashMap<>(this.postings);
+        Map<String, Document> documents = new HashMap<>(this.documents);
+        Document previous = documents.remove(product.id());
+        PrefixTrie trie = previous == null ? this.trie : remove(product.id(), previous, postings, this.trie);
+        double totalLength = previous == null ? this.totalLength : this.totalLength - previous.length();
+
+        Document document = document(product);
+        for (Map.Entry<String, Float> term : document.frequencies().entrySet()) {
+            Posting[] current = postings.getOrDefault(term.getKey(), new Posting[0]);
+            Posting[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = new Posting(product.id(), term.getValue(), document.length());
+            postings.put(term.getKey(), updated);
+            trie = trie.with(term.getKey(), updated.length);
+        }
+        documents.put(product.id(), document);
+        return new SearchIndex(postings, documents, totalLength + document.length(), trie);
+    }
+
+    /**
+     * An index without the product; the same index if it was not indexed
+     */
+    SearchIndex without(String productId) {
+        Document document = documents.get(productId);
+        if (document == null) {
+            return this;
+        }
+        Map<String, Posting[]> postings = new HashMap<>(this.postings);
+        PrefixTrie trie = remove(productId, document, postings, this.trie);
+        Map<String, Document> documents = new HashMap<>(this.documents);
+        documents.remove(productId);
+        return new SearchIndex(postings, documents, totalLength - document.length(), trie);
+    }
+
+    /**
+     * Takes the product out of the posting lists of its terms
+     *
+     * @return the trie with the new weights of those terms
+     */
+    private static PrefixTrie remove(String productId, Document document, Map<String, Posting[]> postings,
+                                     PrefixTrie trie) {
+        for (String term : document.frequencies().keySet()) {
+            Posting[] updated = Arrays.stream(postings.get(term))
+                                      .filter(posting -> !posting.productId().equals(productId))
+                                      .toArray(Posting[]::new);
+            if (updated.length == 0) {
+                postings.remove(term);
+            } else {
+                postings.put(term, updated);
+            }
+            trie = trie.with(term, updated.length);
+        }
+        return trie;
+    }
+
+    /**
+     * Ids of the products matching any query term, best first, with their
+     * scores. The last term also matches as a prefix, so results follow
+     * the shopper while they type.
+     */
+    Map<String, Double> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || documents.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            if (i == terms.size() - 1 && !postings.containsKey(term)) {
+                for (PrefixTrie.Completion completion : trie.complete(term, PREFIX_EXPANSIONS)) {
+                    score(completion.term(), scores);
+                }
+            } else {
+                score(term, scores);
+            }
+        }
+        // Keep the best `limit` in a min-heap rather than sorting every match
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<String, Double> score : scores.entrySet()) {
+            best.add(score);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<String, Double>> top = new ArrayList<>(best);
+        top.sort(RANKING);
+        Map<String, Double> ranked = new LinkedHashMap<>();
+        top.forEach(score -> ranked.put(score.getKey(), score.getValue()));
+        return ranked;
+    }
+
+    /**
+     * Index terms starting with the prefix, found in the most products first
+     */
+    List<String> complete(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        return trie.complete(tokens.get(tokens.size() - 1), limit).stream().map(PrefixTrie.Completion::term).toList();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    private void score(String term, Map<String, Double> scores) {
+        Posting[] matches = postings.get(term);
+        if (matches == null) {
+            return;
+        }
+        int n = documents.size();
+        double idf = Math.log(1 + (n - matches.length + 0.5) / (matches.length + 0.5));
+        double averageLength = totalLength / n;
+        for (Posting posting : matches) {
+            double frequency = posting.frequency();
+            double norm = K1 * (1 - B + B * posting.length() / averageLength);
+            double score = idf * frequency * (K1 + 1) / (frequency + norm);
+            scores.merge(posting.productId(), score, Double::sum);
+        }
+    }
+
+    private static Document document(Product product) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += add(frequencies, product.name(), NAME);
+        length += add(frequencies, product.brand(), BRAND);
+        length += add(frequencies, product.subcategory(), SUBCATEGORY);
+        length += add(frequencies, product.description(), TEXT);
+        for (String detail : product.details()) {
+            length += add(frequencies, detail, TEXT);
+        }
+        return new Document(Map.copyOf(frequencies), length);
+    }
+
+    private static float add(Map<String, Float> frequencies, String text, float weight) {
+        List<String> terms = tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    /**
+     * Lower-cased words without accents, so "Délices" is found as "delices"
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String folded = (isAscii(text) ? text
+                         : Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", ""))
+            .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String term = folded.substring(start, i);
+                if (!STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package org.doogleoss.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public class CacheStatsResponse {
+    @JsonProperty("name")
+    public String name;
+    
+    @JsonProperty("size")
+    public long size;
+    
+    @JsonProperty("hits")
+    public long hits;
+    
+    @JsonProperty("misses")
+    public long misses;
+    
+    @JsonProperty("hitRate")
+    public double hitRate;
+    
+    @JsonProperty("evictions")
+    public long evictions;
+    
+    public CacheStatsResponse() {}
+    
+    public static CacheStatsResponse of(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        CacheStatsResponse response = new CacheStatsResponse();
+        response.name = name;
+        response.size = cache.estimatedSize();
+        response.hits = stats.hitCount();
+        response.misses = stats.missCount();
+        response.hitRate = stats.hitRate();
+        response.evictions = stats.evictionCount();
+        return response;
+    }
+}
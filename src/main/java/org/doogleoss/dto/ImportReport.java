@@ -0,0 +1,45 @@
+package org.doogleoss.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ImportReport {
+    @JsonProperty("imported")
+    public long imported;
+    
+    @JsonProperty("failed")
+    public long failed;
+    
+    @JsonProperty("elapsedMillis")
+    public long elapsedMillis;
+    
+    @JsonProperty("rowsPerSecond")
+    public double rowsPerSecond;
+    
+    // Capped, see failed for the total
+    @JsonProperty("failures")
+    public List<RowFailure> failures = new ArrayList<>();
+    
+    // The error that stopped the import, null when it read the whole input
+    @JsonProperty("aborted")
+    public String aborted;
+    
+    public ImportReport() {}
+    
+    public static class RowFailure {
+        @JsonProperty("line")
+        public long line;
+        
+        @JsonProperty("error")
+        public String error;
+        
+        public RowFailure() {}
+        
+        public RowFailure(long line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+    }
+}
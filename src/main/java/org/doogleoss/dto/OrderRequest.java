@@ -0,0 +1,40 @@
+package org.doogleoss.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderRequest {
+    @JsonProperty("email")
+    public String email;
+    
+    @JsonProperty("shippingName")
+    public String shippingName;
+    
+    @JsonProperty("shippingAddress")
+    public String shippingAddress;
+    
+    @JsonProperty("phone")
+    public String phone;
+    
+    @JsonProperty("items")
+    public List<Item> items;
+    
+    public OrderRequest() {}
+    
+    // Prices are taken from the catalog, never from the client
+    public static class Item {
+        @JsonProperty("productId")
+        public String productId;
+        
+        @JsonProperty("quantity")
+        public int quantity;
+        
+        public Item() {}
+        
+        public Item(String productId, int quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.doogleoss.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderResponse {
+    @JsonProperty("orderNumber")
+    public String orderNumber;
+    
+    @JsonProperty("status")
+    public String status;
+    
+    @JsonProperty("email")
+    public String email;
+    
+    @JsonProperty("total")
+    public long total;
+    
+    @JsonProperty("createdAt")
+    public LocalDateTime createdAt;
+    
+    @JsonProperty("items")
+    public List<Line> items;
+    
+    public OrderResponse() {}
+    
+    public static class Line {
+        @JsonProperty("productId")
+        public String productId;
+        
+        @JsonProperty("productName")
+        public String productName;
+        
+        @JsonProperty("unitPrice")
+        public long unitPrice;
+        
+        @JsonProperty("quantity")
+        public int quantity;
+        
+        public Line() {}
+        
+        public Line(String productId, String productName, long unitPrice, int quantity) {
+            this.productId = productId;
+            this.productName = productName;
+            this.unitPrice = unitPrice;
+            this.quantity = quantity;
+        }
+    }
+}
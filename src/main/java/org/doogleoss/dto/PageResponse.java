@@ -0,0 +1,33 @@
+package org.doogleoss.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PageResponse<T> {
+    @JsonProperty("items")
+    public List<T> items;
+    
+    // Pass as "after" to get the next page, null on the last page
+    @JsonProperty("nextCursor")
+    public Long nextCursor;
+    
+    public PageResponse() {}
+    
+    public PageResponse(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    /**
+     * @param rows up to {@code limit + 1} rows in id order, the extra row only telling that a next page exists
+     */
+    public static <T> PageResponse<T> of(List<T> rows, int limit, Function<T, Long> id) {
+        if (rows.size() <= limit) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new PageResponse<>(items, id.apply(items.get(limit - 1)));
+    }
+}
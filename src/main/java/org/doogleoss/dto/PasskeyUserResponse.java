@@ -0,0 +1,22 @@
+package org.doogleoss.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PasskeyUserResponse {
+    @JsonProperty("id")
+    public Long id;
+    
+    @JsonProperty("username")
+    public String username;
+    
+    @JsonProperty("credentials")
+    public long credentials;
+    
+    public PasskeyUserResponse() {}
+    
+    public PasskeyUserResponse(Long id, String username, long credentials) {
+        this.id = id;
+        this.username = username;
+        this.credentials = credentials;
+    }
+}
@@ -0,0 +1,31 @@
+package org.doogleoss.dto;
+
+import java.util.List;
+
+import org.doogleoss.catalog.Product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ProductPage {
+    @JsonProperty("items")
+    public List<Product> items;
+    
+    // Matching products over all pages
+    @JsonProperty("total")
+    public int total;
+    
+    @JsonProperty("page")
+    public int page;
+    
+    @JsonProperty("size")
+    public int size;
+    
+    public ProductPage() {}
+    
+    public ProductPage(List<Product> items, int total, int page, int size) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+    }
+}
@@ -0,0 +1,23 @@
+package org.doogleoss.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ReplicaStatusResponse {
+    @JsonProperty("enabled")
+    public boolean enabled;
+    
+    @JsonProperty("routing")
+    public boolean routing;
+    
+    // -1 when unknown
+    @JsonProperty("lagMillis")
+    public long lagMillis;
+    
+    public ReplicaStatusResponse() {}
+    
+    public ReplicaStatusResponse(boolean enabled, boolean routing, long lagMillis) {
+        this.enabled = enabled;
+        this.routing = routing;
+        this.lagMillis = lagMillis;
+    }
+}
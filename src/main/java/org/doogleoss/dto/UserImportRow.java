@@ -0,0 +1,28 @@
+package org.doogleoss.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserImportRow {
+    @JsonProperty("username")
+    public String username;
+    
+    @JsonProperty("firstName")
+    public String firstName;
+    
+    @JsonProperty("lastName")
+    public String lastName;
+    
+    @JsonProperty("email")
+    public String email;
+    
+    // Already bcrypt-hashed; plain passwords are not accepted in bulk
+    @JsonProperty("passwordHash")
+    public String passwordHash;
+    
+    @JsonProperty("password")
+    public String password;
+    
+    public UserImportRow() {}
+}
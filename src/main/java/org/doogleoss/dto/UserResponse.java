@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import io.quarkus.hibernate.orm.panache.common.ProjectedConstructor;
+
 public class UserResponse {
     @JsonProperty("id")
     public Long id;
@@ -25,6 +27,7 @@ public class UserResponse {
     
     public UserResponse() {}
     
+    @ProjectedConstructor
     public UserResponse(Long id, String username, String firstName, String lastName, String email, LocalDateTime createdAt) {
         this.id = id;
         this.username = username;
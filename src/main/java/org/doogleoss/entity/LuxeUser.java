@@ -2,7 +2,6 @@ package org.doogleoss.entity;
 
 import java.time.LocalDateTime;
 
-import io.quarkus.elytron.security.common.BcryptUtil;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -24,6 +23,7 @@ public class LuxeUser extends PanacheEntity {
     @Column(unique = true, nullable = false)
     public String email;
     
+    // bcrypt hash made by PasswordHasher, null for passkey-only users
     @Column(nullable = true)
     public String password;
     
@@ -46,34 +46,7 @@ public class LuxeUser extends PanacheEntity {
         this.email = email;
     }
     
-    public LuxeUser(String username, String firstName, String lastName, String email, String password) {
-        this(username, firstName, lastName, email);
-        setPassword(password);
-    }
-    
     public String getFullName() {
         return firstName + " " + lastName;
     }
-    
-    /**
-     * Set password with bcrypt encryption (one-way encryption)
-     * @param plainPassword the plain text password to encrypt
-     */
-    public void setPassword(String plainPassword) {
-        if (plainPassword != null && !plainPassword.isEmpty()) {
-            this.password = BcryptUtil.bcryptHash(plainPassword);
-        }
-    }
-    
-    /**
-     * Validate a plain text password against the encrypted password
-     * @param plainPassword the plain text password to validate
-     * @return true if password matches, false otherwise
-     */
-    public boolean validatePassword(String plainPassword) {
-        if (plainPassword == null || plainPassword.isEmpty() || password == null) {
-            return false;
-        }
-        return BcryptUtil.matches(plainPassword, password);
-    }
 }
@@ -0,0 +1,54 @@
+package org.doogleoss.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.Arc;
+import jakarta.inject.Inject;
+
+/**
+ * Publishes the JDBC statements of each REST call as {@code luxe.db.statements}
+ * and {@code luxe.db.time}, tagged with the resource method that served it.
+ * Request latency and status are already published by Quarkus as
+ * {@code http.server.requests}.
+ */
+public class EndpointQueryMetrics {
+
+    private record Meters(DistributionSummary statements, Timer time) {
+    }
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    @Inject
+    MeterRegistry registry;
+
+    @ServerResponseFilter
+    public void recordQueries(SimpleResourceInfo resourceInfo) {
+        if (resourceInfo.getResourceClass() == null || !Arc.container().requestContext().isActive()) {
+            return;
+        }
+        QueryStats stats = Arc.container().instance(QueryStats.class).get();
+        String endpoint = resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getMethodName();
+        Meters endpointMeters = meters.computeIfAbsent(endpoint, this::register);
+        endpointMeters.statements().record(stats.statements);
+        endpointMeters.time().record(stats.nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Meters register(String endpoint) {
+        return new Meters(DistributionSummary.builder("luxe.db.statements")
+                                             .tag("endpoint", endpoint)
+                                             .publishPercentileHistogram()
+                                             .register(registry),
+                          Timer.builder("luxe.db.time")
+                               .tag("endpoint", endpoint)
+                               .publishPercentileHistogram()
+                               .register(registry));
+    }
+}
@@ -0,0 +1,25 @@
+package org.doogleoss.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * Records the latency histogram and outcome of every method of the annotated
+ * bean as timer {@link #value()}, tagged with class, method and outcome.
+ * {@code Uni} results are timed until they complete.
+ */
+@Inherited
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Measured {
+
+    @Nonbinding
+    String value();
+}
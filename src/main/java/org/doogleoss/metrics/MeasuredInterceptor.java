@@ -0,0 +1,89 @@
+package org.doogleoss.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Runs outside {@code @Transactional}, so commit time and commit failures are
+ * part of the measurement. Timers are resolved once per method; a call costs a
+ * map lookup and two {@link System#nanoTime()} reads. The meters listed in
+ * {@code luxe.readiness.latency.meters} also feed {@link RecentLatencies}.
+ * A returned {@link Outcome} that did not succeed counts as a failure.
+ */
+@Measured("")
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class MeasuredInterceptor {
+
+    private record Timers(Timer success, Timer failure, RecentLatencies recent) {
+
+        void record(long start, boolean succeeded) {
+            long elapsed = System.nanoTime() - start;
+            (succeeded ? success : failure).record(elapsed, TimeUnit.NANOSECONDS);
+            if (recent != null) {
+                recent.record(elapsed);
+            }
+        }
+    }
+
+    private final Map<Method, Timers> timers = new ConcurrentHashMap<>();
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    RecentLatencies recentLatencies;
+
+    @ConfigProperty(name = "luxe.readiness.latency.meters")
+    Set<String> readinessMeters;
+
+    @AroundInvoke
+    Object measure(InvocationContext context) throws Exception {
+        Timers methodTimers = timers.computeIfAbsent(context.getMethod(), method -> register(context));
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = context.proceed();
+        } catch (Exception e) {
+            methodTimers.record(start, false);
+            throw e;
+        }
+        if (result instanceof Uni<?> uni) {
+            return uni.onItemOrFailure().invoke((item, failure) -> methodTimers.record(start, failure == null));
+        }
+        methodTimers.record(start, !(result instanceof Outcome outcome) || outcome.succeeded());
+        return result;
+    }
+
+    private Timers register(InvocationContext context) {
+        Method method = context.getMethod();
+        String name = context.getInterceptorBinding(Measured.class).value();
+        String className = method.getDeclaringClass().getSimpleName();
+        return new Timers(timer(name, className, method.getName(), "success"),
+                          timer(name, className, method.getName(), "failure"),
+                          readinessMeters.contains(name) ? recentLatencies : null);
+    }
+
+    private Timer timer(String name, String className, String method, String outcome) {
+        return Timer.builder(name)
+                    .tag("class", className)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+    }
+}
@@ -0,0 +1,10 @@
+package org.doogleoss.metrics;
+
+/**
+ * A return value that can carry an expected failure instead of throwing it.
+ * {@link MeasuredInterceptor} records a failed one with outcome "failure".
+ */
+public interface Outcome {
+
+    boolean succeeded();
+}
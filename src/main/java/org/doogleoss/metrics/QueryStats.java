@@ -0,0 +1,23 @@
+package org.doogleoss.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * JDBC statements executed while serving the current request, fed by
+ * {@link QueryStatsListener} and recorded per endpoint by {@link EndpointQueryMetrics}
+ */
+@RequestScoped
+public class QueryStats {
+
+    int statements;
+    long nanos;
+
+    public int statements() {
+        return statements;
+    }
+
+    void add(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+}
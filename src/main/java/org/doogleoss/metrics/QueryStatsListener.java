@@ -0,0 +1,51 @@
+package org.doogleoss.metrics;
+
+import org.hibernate.SessionEventListener;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Created by Hibernate for every session (see {@code hibernate.session.events.auto}).
+ * Counts and times the statements and batches the session executes on behalf
+ * of the HTTP request it was opened in; sessions opened outside a request,
+ * such as scheduled flushes, are ignored.
+ */
+@RegisterForReflection
+public class QueryStatsListener implements SessionEventListener {
+
+    private final transient QueryStats stats;
+    private long start;
+
+    public QueryStatsListener() {
+        ManagedContext requestContext = Arc.container().requestContext();
+        stats = requestContext.isActive() ? Arc.container().instance(QueryStats.class).get() : null;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record();
+    }
+
+    private void record() {
+        if (stats != null) {
+            stats.add(System.nanoTime() - start);
+        }
+    }
+}
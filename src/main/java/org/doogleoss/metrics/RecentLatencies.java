@@ -0,0 +1,103 @@
+package org.doogleoss.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Latency histogram of the last few sampling intervals, for the measured
+ * methods listed in {@code luxe.readiness.latency.meters}. Unlike the
+ * Micrometer timers, reading a percentile allocates nothing: buckets are
+ * fixed counters, four per power of two, so a percentile is at most 19% above
+ * the actual value. The window is a ring of {@code window-slots} histograms;
+ * whoever samples it calls {@link #rotate()} once per interval.
+ */
+@ApplicationScoped
+public class RecentLatencies {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+
+    @ConfigProperty(name = "luxe.readiness.latency.window-slots", defaultValue = "10")
+    int windowSlots;
+
+    private AtomicLongArray[] slots;
+    private volatile int current;
+
+    @PostConstruct
+    void init() {
+        slots = new AtomicLongArray[windowSlots];
+        for (int i = 0; i < windowSlots; i++) {
+            slots[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    public void record(long nanos) {
+        slots[current].incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * @return the {@code quantile} latency over the window in nanoseconds, or -1 when it has fewer than
+     *         {@code minSamples} calls
+     */
+    public long percentile(double quantile, long minSamples) {
+        long total = 0;
+        for (AtomicLongArray slot : slots) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                total += slot.get(bucket);
+            }
+        }
+        if (total < minSamples || total == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (AtomicLongArray slot : slots) {
+                seen += slot.get(bucket);
+            }
+            // Counts only grow between the two passes
+            if (seen >= rank) {
+                return upperBound(bucket);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Drops the oldest interval and starts recording into it
+     */
+    public void rotate() {
+        int next = (current + 1) % slots.length;
+        AtomicLongArray slot = slots[next];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            slot.set(bucket, 0);
+        }
+        current = next;
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        if (exponent >= 62) {
+            return Long.MAX_VALUE;
+        }
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (bucket & (SUB_BUCKETS - 1)) * width + width - 1;
+    }
+}
@@ -0,0 +1,103 @@
+package org.doogleoss.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier (inside
+ * {@code synchronized} or a native frame), which takes the carrier away from
+ * every other virtual thread. Listens to the JFR {@code jdk.VirtualThreadPinned}
+ * events longer than {@code luxe.virtual-threads.pinned-threshold}, records them
+ * as {@code luxe.virtual-threads.pinned} and logs the first one of each call site.
+ * Only runs when {@code quarkus.virtual-threads.enabled} is set.
+ */
+@ApplicationScoped
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    @ConfigProperty(name = "quarkus.virtual-threads.enabled")
+    boolean virtualThreadsEnabled;
+
+    @ConfigProperty(name = "luxe.virtual-threads.pinned-threshold", defaultValue = "20ms")
+    Duration threshold;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, Timer> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    void start(@Observes StartupEvent event) {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED, this::pinned);
+            stream.startAsync();
+        } catch (RuntimeException | LinkageError e) {
+            // No JFR in this runtime (native image built without it)
+            LOG.warnf("Virtual thread pinning is not monitored: %s", e.toString());
+            stream = null;
+        }
+    }
+
+    void stop(@Observes ShutdownEvent event) {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void pinned(RecordedEvent event) {
+        String site = site(event.getStackTrace());
+        sites.computeIfAbsent(site, s -> {
+            LOG.warnf("Virtual thread pinned its carrier for %d ms at %s%n%s", event.getDuration().toMillis(), s,
+                      event.getStackTrace());
+            return Timer.builder("luxe.virtual-threads.pinned").tag("site", s).register(registry);
+        }).record(event.getDuration());
+    }
+
+    /**
+     * The first application frame, else the first frame outside the JDK: the
+     * top frames are where the virtual thread parked, not what pinned it
+     */
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame site = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("org.doogleoss.")) {
+                site = frame;
+                break;
+            }
+            if (site == null && !type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                site = frame;
+            }
+        }
+        if (site == null) {
+            site = stackTrace.getFrames().get(0);
+        }
+        return site.getMethod().getType().getName() + "." + site.getMethod().getName();
+    }
+}
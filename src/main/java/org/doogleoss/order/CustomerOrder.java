@@ -0,0 +1,62 @@
+package org.doogleoss.order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "customer_order")
+public class CustomerOrder extends PanacheEntity {
+
+    @Column(name = "order_number", unique = true, nullable = false)
+    public String orderNumber;
+
+    // Retries of a checkout carry the same key; the constraint makes a second order impossible
+    @Column(name = "idempotency_key", unique = true, nullable = false)
+    public String idempotencyKey;
+
+    // SHA-256 of the request, to refuse a key reused for a different order
+    @Column(name = "request_hash", nullable = false)
+    public String requestHash;
+
+    @Column(nullable = false)
+    public String email;
+
+    @Column(name = "shipping_name", nullable = false)
+    public String shippingName;
+
+    @Column(name = "shipping_address", nullable = false)
+    public String shippingAddress;
+
+    public String phone;
+
+    // Whole rupees, as catalog prices
+    @Column(nullable = false)
+    public long total;
+
+    @Column(nullable = false)
+    public String status;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    public List<OrderLine> lines = new ArrayList<>();
+
+    public static CustomerOrder findByIdempotencyKey(String idempotencyKey) {
+        return find("select o from CustomerOrder o left join fetch o.lines where o.idempotencyKey = ?1",
+                    idempotencyKey).firstResult();
+    }
+
+    public static CustomerOrder findByOrderNumber(String orderNumber) {
+        return find("select o from CustomerOrder o left join fetch o.lines where o.orderNumber = ?1",
+                    orderNumber).firstResult();
+    }
+}
@@ -0,0 +1,12 @@
+package org.doogleoss.order;
+
+/**
+ * Thrown when an idempotency key comes back with a different order than the
+ * one it was first used for.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key was already used for a different order", null, false, false);
+    }
+}
@@ -0,0 +1,35 @@
+package org.doogleoss.order;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "order_line", indexes = @Index(name = "order_line_stock_applied_idx", columnList = "stock_applied"))
+public class OrderLine extends PanacheEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id")
+    public CustomerOrder order;
+
+    @Column(name = "product_id", nullable = false)
+    public String productId;
+
+    @Column(name = "product_name", nullable = false)
+    public String productName;
+
+    @Column(name = "unit_price", nullable = false)
+    public long unitPrice;
+
+    @Column(nullable = false)
+    public int quantity;
+
+    // False until StockReservations has subtracted the quantity from product_stock
+    @Column(name = "stock_applied", nullable = false)
+    public boolean stockApplied;
+}
@@ -0,0 +1,72 @@
+package org.doogleoss.order;
+
+import java.net.URI;
+
+import org.doogleoss.UserResource.ErrorResponse;
+import org.doogleoss.dto.OrderRequest;
+import org.doogleoss.dto.OrderResponse;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/api/orders")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class OrderResource {
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String REPLAYED = "Idempotent-Replayed";
+
+    @Inject
+    OrderService orderService;
+
+    /**
+     * Places an order once per {@code Idempotency-Key}: a retry returns the
+     * same order with {@code Idempotent-Replayed: true}
+     */
+    @POST
+    public Response place(@HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey, OrderRequest request) {
+        try {
+            OrderService.Placement placement = orderService.place(idempotencyKey, request);
+            if (placement.replayed()) {
+                return Response.ok(placement.order()).header(REPLAYED, "true").build();
+            }
+            return Response.created(URI.create("/api/orders/" + placement.order().orderNumber))
+                .entity(placement.order())
+                .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        } catch (OutOfStockException e) {
+            return Response.status(Response.Status.CONFLICT)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        } catch (IdempotencyKeyReusedException e) {
+            return Response.status(422)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+
+    @GET
+    @Path("/{orderNumber}")
+    public Response getOrder(@PathParam("orderNumber") String orderNumber) {
+        try {
+            OrderResponse order = orderService.getOrder(orderNumber);
+            return Response.ok(order).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+}
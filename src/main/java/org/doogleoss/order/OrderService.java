@@ -0,0 +1,254 @@
+package org.doogleoss.order;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.doogleoss.catalog.CatalogService;
+import org.doogleoss.catalog.CatalogSnapshot;
+import org.doogleoss.catalog.Product;
+import org.doogleoss.dto.OrderRequest;
+import org.doogleoss.dto.OrderResponse;
+import org.doogleoss.metrics.Measured;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Places orders against {@link StockReservations}. An idempotency key makes a
+ * retried checkout return the order it already placed: concurrent retries
+ * wait for the first attempt in this instance, and the unique key column
+ * settles the rest.
+ */
+@ApplicationScoped
+@Measured("luxe.orders")
+public class OrderService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    // Crockford's base32: no I, L, O or U to misread
+    private static final char[] ORDER_NUMBER_DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * An order and whether it was placed by an earlier request with the same key
+     */
+    public record Placement(OrderResponse order, boolean replayed) {
+    }
+
+    @ConfigProperty(name = "luxe.orders.max-quantity", defaultValue = "10")
+    int maxQuantity;
+
+    @Inject
+    CatalogService catalogService;
+
+    @Inject
+    StockReservations stockReservations;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private record Attempt(String requestHash, CompletableFuture<Placement> result) {
+    }
+
+    private final Map<String, Attempt> inFlight = new ConcurrentHashMap<>();
+
+    public Placement place(String idempotencyKey, OrderRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key header is required, up to " + MAX_KEY_LENGTH
+                                               + " characters");
+        }
+        String requestHash = hash(request);
+        Attempt attempt = new Attempt(requestHash, new CompletableFuture<>());
+        Attempt first = inFlight.putIfAbsent(idempotencyKey, attempt);
+        if (first != null) {
+            if (!first.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            return new Placement(await(first.result()).order(), true);
+        }
+        try {
+            Placement placement = placeOnce(idempotencyKey, requestHash, request);
+            attempt.result().complete(placement);
+            return placement;
+        } catch (RuntimeException e) {
+            attempt.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, attempt);
+        }
+    }
+
+    public OrderResponse getOrder(String orderNumber) {
+        CustomerOrder order = QuarkusTransaction.joiningExisting()
+                                                .call(() -> CustomerOrder.findByOrderNumber(orderNumber));
+        if (order == null) {
+            throw new IllegalArgumentException("Order not found");
+        }
+        return toResponse(order);
+    }
+
+    private Placement placeOnce(String idempotencyKey, String requestHash, OrderRequest request) {
+        Placement existing = findPlaced(idempotencyKey, requestHash);
+        if (existing != null) {
+            return existing;
+        }
+        CatalogSnapshot catalog = catalogService.snapshot();
+        List<StockReservations.Line> lines = validate(request, catalog);
+        String shortProduct = stockReservations.reserve(lines);
+        if (shortProduct != null) {
+            throw new OutOfStockException(shortProduct);
+        }
+        try {
+            CustomerOrder order = QuarkusTransaction.requiringNew()
+                                                    .call(() -> persist(idempotencyKey, requestHash, request,
+                                                                        lines, catalog));
+            return new Placement(toResponse(order), false);
+        } catch (RuntimeException e) {
+            stockReservations.release(lines);
+            // Another instance may have placed it first
+            Placement placed = findPlaced(idempotencyKey, requestHash);
+            if (placed != null) {
+                return placed;
+            }
+            throw e;
+        }
+    }
+
+    private Placement findPlaced(String idempotencyKey, String requestHash) {
+        CustomerOrder order = QuarkusTransaction.requiringNew()
+                                                .call(() -> CustomerOrder.findByIdempotencyKey(idempotencyKey));
+        if (order == null) {
+            return null;
+        }
+        if (!order.requestHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        return new Placement(toResponse(order), true);
+    }
+
+    private CustomerOrder persist(String idempotencyKey, String requestHash, OrderRequest request,
+                                  List<StockReservations.Line> lines, CatalogSnapshot catalog) {
+        CustomerOrder order = new CustomerOrder();
+        order.orderNumber = newOrderNumber();
+        order.idempotencyKey = idempotencyKey;
+        order.requestHash = requestHash;
+        order.email = request.email.trim();
+        order.shippingName = request.shippingName.trim();
+        order.shippingAddress = request.shippingAddress.trim();
+        order.phone = request.phone;
+        order.status = "PLACED";
+        order.createdAt = LocalDateTime.now();
+        for (StockReservations.Line line : lines) {
+            Product product = catalog.byId(line.productId());
+            OrderLine orderLine = new OrderLine();
+            orderLine.order = order;
+            orderLine.productId = product.id();
+            orderLine.productName = product.name();
+            orderLine.unitPrice = product.price();
+            orderLine.quantity = line.quantity();
+            order.lines.add(orderLine);
+            order.total += product.price() * line.quantity();
+        }
+        order.persist();
+        return order;
+    }
+
+    /**
+     * Anyone holding an order number can read the order, so it carries 80 random bits instead of the id
+     */
+    static String newOrderNumber() {
+        char[] number = new char[18];
+        number[0] = 'L';
+        number[1] = 'I';
+        for (int i = 2; i < number.length; i++) {
+            number[i] = ORDER_NUMBER_DIGITS[RANDOM.nextInt(ORDER_NUMBER_DIGITS.length)];
+        }
+        return new String(number);
+    }
+
+    private List<StockReservations.Line> validate(OrderRequest request, CatalogSnapshot catalog) {
+        if (request == null || isBlank(request.email) || isBlank(request.shippingName)
+            || isBlank(request.shippingAddress)) {
+            throw new IllegalArgumentException("email, shippingName and shippingAddress are required");
+        }
+        if (request.items == null || request.items.isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one item");
+        }
+        // One line per product, in request order
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (OrderRequest.Item item : request.items) {
+            if (item == null) {
+                throw new IllegalArgumentException("Items must not be null");
+            }
+            if (item.productId == null || catalog.byId(item.productId) == null) {
+                throw new IllegalArgumentException("Unknown product: " + item.productId);
+            }
+            if (item.quantity < 1) {
+                throw new IllegalArgumentException("Quantity must be at least 1");
+            }
+            // Summed as a long: two large quantities of one product must not wrap around to a negative one
+            long quantity = (long) quantities.getOrDefault(item.productId, 0) + item.quantity;
+            if (quantity > maxQuantity) {
+                throw new IllegalArgumentException("At most " + maxQuantity + " of a product per order");
+            }
+            quantities.put(item.productId, (int) quantity);
+        }
+        List<StockReservations.Line> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> lines.add(new StockReservations.Line(productId, quantity)));
+        return lines;
+    }
+
+    private static Placement await(CompletableFuture<Placement> first) {
+        try {
+            return first.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(OrderRequest request) {
+        try {
+            byte[] canonical = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static OrderResponse toResponse(CustomerOrder order) {
+        OrderResponse response = new OrderResponse();
+        response.orderNumber = order.orderNumber;
+        response.status = order.status;
+        response.email = order.email;
+        response.total = order.total;
+        response.createdAt = order.createdAt;
+        response.items = order.lines.stream()
+                                    .map(line -> new OrderResponse.Line(line.productId, line.productName,
+                                                                        line.unitPrice, line.quantity))
+                                    .toList();
+        return response;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,15 @@
+package org.doogleoss.order;
+
+/**
+ * Thrown when an order asks for more units than are left. Carries no stack
+ * trace: at the end of a flash sale most orders end here.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    public final String productId;
+
+    public OutOfStockException(String productId) {
+        super("Not enough stock for " + productId, null, false, false);
+        this.productId = productId;
+    }
+}
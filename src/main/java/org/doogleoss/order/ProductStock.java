@@ -0,0 +1,37 @@
+package org.doogleoss.order;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Units on hand per product, seeded from the catalog. Sold quantities are
+ * subtracted in batches by {@link StockReservations}, not by each order.
+ */
+@Entity
+@Table(name = "product_stock")
+public class ProductStock extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "product_id")
+    public String productId;
+
+    @Column(name = "stock_count", nullable = false)
+    public int stockCount;
+
+    @Column(name = "updated_at", nullable = false)
+    public LocalDateTime updatedAt;
+
+    public ProductStock() {
+    }
+
+    public ProductStock(String productId, int stockCount) {
+        this.productId = productId;
+        this.stockCount = stockCount;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,202 @@
+package org.doogleoss.order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.doogleoss.catalog.CatalogService;
+import org.doogleoss.catalog.Product;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+/**
+ * In-memory stock that orders reserve from, one {@link StripedStock} per
+ * product, so placing an order never locks a {@code product_stock} row.
+ *
+ * The database catches up in batches: every flush interval, the quantities
+ * of order lines not yet applied are summed per product and subtracted with
+ * one update per product, and the lines are marked applied in the same
+ * transaction. A crash loses nothing, since unapplied lines are subtracted
+ * again when stock is loaded. Reservations are only authoritative with a
+ * single instance taking orders.
+ */
+@ApplicationScoped
+public class StockReservations {
+
+    private static final Logger LOG = Logger.getLogger(StockReservations.class);
+
+    /**
+     * Units of one product an order needs
+     */
+    public record Line(String productId, int quantity) {
+    }
+
+    @ConfigProperty(name = "luxe.orders.stock.stripes")
+    Optional<Integer> configuredStripes;
+
+    @ConfigProperty(name = "luxe.orders.stock.flush-batch-size", defaultValue = "1000")
+    int flushBatchSize;
+
+    @Inject
+    CatalogService catalogService;
+
+    private final Map<String, StripedStock> stocks = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // After the catalog has loaded
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent event) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Set<String> known = new HashSet<>(ProductStock.getEntityManager()
+                .createQuery("select s.productId from ProductStock s", String.class)
+                .getResultList());
+            for (Product product : catalogService.snapshot().products()) {
+                if (!known.contains(product.id())) {
+                    new ProductStock(product.id(), product.stockCount()).persist();
+                }
+            }
+        });
+        QuarkusTransaction.requiringNew().run(() -> {
+            List<Object[]> rows = ProductStock.getEntityManager().createQuery("""
+                    select s.productId, s.stockCount - coalesce((select sum(l.quantity) from OrderLine l
+                                                                 where l.productId = s.productId
+                                                                 and l.stockApplied = false), 0)
+                    from ProductStock s
+                    """, Object[].class).getResultList();
+            for (Object[] row : rows) {
+                stocks.put((String) row[0], new StripedStock(((Number) row[1]).longValue(), stripes()));
+            }
+            LOG.infof("Loaded stock of %d products into %d stripes each", rows.size(), stripes());
+        });
+    }
+
+    /**
+     * Reserves every line or none of them
+     *
+     * @return the first product that is short, or null when all lines are reserved
+     */
+    public String reserve(List<Line> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (!stock(line.productId()).tryReserve(line.quantity())) {
+                release(lines.subList(0, i));
+                return line.productId();
+            }
+        }
+        return null;
+    }
+
+    public void release(List<Line> lines) {
+        for (Line line : lines) {
+            stock(line.productId()).release(line.quantity());
+        }
+    }
+
+    public long available(String productId) {
+        return stock(productId).available();
+    }
+
+    @Scheduled(every = "${luxe.orders.stock.flush-interval:1s}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        flush();
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    /**
+     * Applies sold quantities to {@code product_stock}
+     *
+     * @return the number of order lines applied
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            int applied = 0;
+            int batch;
+            do {
+                batch = QuarkusTransaction.requiringNew().call(this::applyBatch);
+                applied += batch;
+            } while (batch == flushBatchSize);
+            if (applied > 0) {
+                LOG.debugf("Applied %d order lines to product stock", applied);
+            }
+            return applied;
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Failed to apply order lines to product stock, retrying on next flush");
+            return 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int applyBatch() {
+        List<Object[]> lines = OrderLine.getEntityManager().createQuery("""
+                select l.id, l.productId, l.quantity from OrderLine l
+                where l.stockApplied = false order by l.id
+                """, Object[].class)
+            .setMaxResults(flushBatchSize)
+            .getResultList();
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(lines.size());
+        Map<String, Integer> sold = new HashMap<>();
+        for (Object[] line : lines) {
+            ids.add((Long) line[0]);
+            sold.merge((String) line[1], (Integer) line[2], Integer::sum);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        sold.forEach((productId, quantity) ->
+            ProductStock.update("stockCount = stockCount - ?1, updatedAt = ?2 where productId = ?3",
+                                quantity, now, productId));
+        // By id, not by flag: lines committed since the select are left for the next batch
+        OrderLine.update("stockApplied = true where id in ?1", ids);
+        return lines.size();
+    }
+
+    private StripedStock stock(String productId) {
+        return stocks.computeIfAbsent(productId, this::load);
+    }
+
+    /**
+     * Stock of a product added to the catalog after startup
+     */
+    private StripedStock load(String productId) {
+        Product product = catalogService.snapshot().byId(productId);
+        if (product == null) {
+            throw new IllegalArgumentException("Unknown product: " + productId);
+        }
+        int stockCount = QuarkusTransaction.requiringNew().call(() -> {
+            ProductStock stock = ProductStock.findById(productId);
+            if (stock == null) {
+                stock = new ProductStock(productId, product.stockCount());
+                stock.persist();
+            }
+            return stock.stockCount;
+        });
+        return new StripedStock(stockCount, stripes());
+    }
+
+    private int stripes() {
+        return configuredStripes.orElse(Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2);
+    }
+}
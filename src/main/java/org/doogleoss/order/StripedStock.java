@@ -0,0 +1,86 @@
+package org.doogleoss.order;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available units of one product, split across stripes so that concurrent
+ * buyers of a hot product CAS different cache lines instead of queueing on
+ * one counter or one database row. A reservation takes units from a single
+ * stripe; only when no stripe can cover it alone are the stripes drained
+ * under a lock and rebalanced. The total never goes below zero.
+ */
+final class StripedStock {
+
+    // Eight longs apart: one stripe per 64-byte cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedStock(long available, int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        spread(available);
+    }
+
+    /**
+     * Takes {@code quantity} units if that many are available
+     */
+    boolean tryReserve(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PADDING;
+            long units = cells.get(cell);
+            while (units >= quantity) {
+                long witness = cells.compareAndExchange(cell, units, units - quantity);
+                if (witness == units) {
+                    return true;
+                }
+                units = witness;
+            }
+        }
+        // Sold out is the common answer at the end of a sale: give it without taking the lock
+        return available() >= quantity && reserveAcrossStripes(quantity);
+    }
+
+    /**
+     * Gives back units of a reservation that was not used
+     */
+    void release(int quantity) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    long available() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private synchronized boolean reserveAcrossStripes(int quantity) {
+        if (available() < quantity) {
+            return false;
+        }
+        // Stripes may still move concurrently: take what is there now, atomically per stripe
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        if (drained < quantity) {
+            spread(drained);
+            return false;
+        }
+        spread(drained - quantity);
+        return true;
+    }
+
+    private void spread(long units) {
+        long share = units / stripes;
+        long remainder = units % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.doogleoss.repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.doogleoss.webauthn.CredentialChanged;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.jboss.logging.Logger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.InjectableInstance;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Routes read-only lookups to the {@code replica} datasource, in a read-only
+ * Hibernate session opened on one of its connections. A lookup stays on the
+ * primary when it runs in a transaction, when the replica is more than
+ * {@code luxe.datasource.replica.max-lag} behind or its lag is unknown, and
+ * when one of its keys (a username, credential ID or {@code "id:" + user id})
+ * was written by this instance in the last {@code read-your-writes-window}.
+ *
+ * Only enabled when {@code quarkus.datasource.replica.active} is set.
+ * Read-your-writes is kept per instance: behind a load balancer, requests
+ * that follow a write need to stick to the instance that made it.
+ */
+@ApplicationScoped
+public class ReadReplica {
+
+    private static final Logger LOG = Logger.getLogger(ReadReplica.class);
+
+    // The replica is as recent as the primary when it has replayed all it received
+    private static final String LAG_QUERY = "select case when not pg_is_in_recovery()"
+        + " or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+        + " else extract(epoch from clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000 end";
+    private static final long UNKNOWN = -1;
+
+    @ConfigProperty(name = "quarkus.datasource.replica.active", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "luxe.datasource.replica.max-lag", defaultValue = "1s")
+    Duration maxLag;
+
+    @ConfigProperty(name = "luxe.datasource.replica.read-your-writes-window", defaultValue = "5s")
+    Duration readYourWritesWindow;
+
+    @ConfigProperty(name = "luxe.datasource.replica.lag-check-interval", defaultValue = "1s")
+    Duration lagCheckInterval;
+
+    @Inject
+    @DataSource("replica")
+    InjectableInstance<AgroalDataSource> replica;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    Session primary;
+
+    @Inject
+    MeterRegistry registry;
+
+    private Cache<String, Boolean> written;
+    private Counter replicaReads;
+    private Counter primaryReads;
+    private volatile long lagMillis = UNKNOWN;
+    private volatile long checkedAt;
+    private volatile boolean routing;
+
+    @PostConstruct
+    void init() {
+        written = Caffeine.newBuilder()
+                          .maximumSize(100_000)
+                          .expireAfterWrite(readYourWritesWindow)
+                          .build();
+        replicaReads = Counter.builder("luxe.db.reads").tag("datasource", "replica").register(registry);
+        primaryReads = Counter.builder("luxe.db.reads").tag("datasource", "primary").register(registry);
+        Gauge.builder("luxe.db.replica.lag", this, r -> r.lagMillis == UNKNOWN ? Double.NaN : r.lagMillis / 1000.0)
+             .baseUnit("seconds")
+             .register(registry);
+    }
+
+    /**
+     * Runs {@code query} on the replica when allowed, otherwise on the primary
+     *
+     * @param key what the lookup is about, {@code null} when it does not need to read its own writes
+     */
+    public <T> T read(String key, Function<EntityManager, T> query) {
+        return read(key == null ? List.of() : List.of(key), query);
+    }
+
+    public <T> T read(Collection<String> keys, Function<EntityManager, T> query) {
+        if (!useReplica(keys)) {
+            primaryReads.increment();
+            return onPrimary(query);
+        }
+        replicaReads.increment();
+        try (Connection connection = replica.get().getConnection();
+             Session session = sessionFactory.withOptions().connection(connection).openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return query.apply(session);
+        } catch (SQLException e) {
+            throw new PersistenceException("Could not read from the replica", e);
+        }
+    }
+
+    /**
+     * Keeps the lookups of {@code key} on the primary for the read-your-writes window
+     */
+    public void wrote(String key) {
+        if (enabled && key != null) {
+            written.put(key, Boolean.TRUE);
+        }
+    }
+
+    void credentialChanged(@Observes CredentialChanged event) {
+        wrote(event.username());
+        wrote(event.credentialId());
+    }
+
+    /**
+     * @return the last measured replica lag, or -1 when unknown
+     */
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isRouting() {
+        return enabled && routing && System.nanoTime() - checkedAt < 3 * lagCheckInterval.toNanos();
+    }
+
+    @Scheduled(every = "${luxe.datasource.replica.lag-check-interval:1s}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void checkLag() {
+        if (!enabled) {
+            return;
+        }
+        long lag;
+        try (Connection connection = replica.get().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            result.next();
+            lag = Math.round(result.getDouble(1));
+        } catch (SQLException | RuntimeException e) {
+            LOG.debugf(e, "Replica lag check failed");
+            lag = UNKNOWN;
+        }
+        boolean healthy = lag != UNKNOWN && lag <= maxLag.toMillis();
+        if (healthy != routing) {
+            if (healthy) {
+                LOG.infof("Routing reads to the replica again, %d ms behind", lag);
+            } else {
+                LOG.warnf("Routing reads to the primary, replica lag %s", lag == UNKNOWN ? "unknown" : lag + " ms");
+            }
+        }
+        lagMillis = lag;
+        checkedAt = System.nanoTime();
+        routing = healthy;
+    }
+
+    private boolean useReplica(Collection<String> keys) {
+        if (!isRouting() || QuarkusTransaction.isActive()) {
+            return false;
+        }
+        for (String key : keys) {
+            if (written.getIfPresent(key) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <T> T onPrimary(Function<EntityManager, T> query) {
+        // The session needs a transaction or a request; virtual threads and scheduled jobs may have neither
+        if (QuarkusTransaction.isActive() || Arc.container().requestContext().isActive()) {
+            return query.apply(primary);
+        }
+        return QuarkusTransaction.joiningExisting().call(() -> query.apply(primary));
+    }
+}
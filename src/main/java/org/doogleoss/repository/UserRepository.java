@@ -1,13 +1,46 @@
 package org.doogleoss.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.doogleoss.dto.UserResponse;
 import org.doogleoss.entity.LuxeUser;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.TypedQuery;
 
 @ApplicationScoped
 public class UserRepository implements PanacheRepository<LuxeUser> {
     
+    private static final String USER_RESPONSE = "select new " + UserResponse.class.getName()
+        + "(u.id, u.username, u.firstName, u.lastName, u.email, u.createdAt)";
+    private static final String LOGIN_VIEW = "select new " + LoginView.class.getName()
+        + "(u.id, u.username, u.firstName, u.lastName, u.email, u.createdAt, u.password)";
+    
+    @Inject
+    ReadReplica readReplica;
+    
+    public enum Conflict {
+        NONE, USERNAME, EMAIL
+    }
+    
+    /**
+     * What a password login needs: the public profile plus the password hash
+     */
+    public record LoginView(Long id, String username, String firstName, String lastName,
+                            String email, LocalDateTime createdAt, String password) {
+        
+        public UserResponse toUserResponse() {
+            return new UserResponse(id, username, firstName, lastName, email, createdAt);
+        }
+    }
+    
     public LuxeUser findByUsername(String username) {
         return find("username", username).firstResult();
     }
@@ -16,6 +49,49 @@ public class UserRepository implements PanacheRepository<LuxeUser> {
         return find("email", email).firstResult();
     }
     
+    public UserResponse findResponseById(Long id) {
+        return readReplica.read("id:" + id, em -> first(
+            readOnly(em.createQuery(USER_RESPONSE + " from LuxeUser u where u.id = ?1", UserResponse.class))
+                .setParameter(1, id)));
+    }
+    
+    public UserResponse findResponseByUsername(String username) {
+        return readReplica.read(username, em -> first(
+            readOnly(em.createQuery(USER_RESPONSE + " from LuxeUser u where u.username = ?1", UserResponse.class))
+                .setParameter(1, username)));
+    }
+    
+    /**
+     * Profile of a signed-in identity, through its profile link: one query on
+     * the unique username index of {@code users} joined to the primary key of {@code luxe_user}
+     */
+    public UserResponse findResponseByIdentity(String username) {
+        return readReplica.read(username, em -> first(
+            readOnly(em.createQuery("select new org.doogleoss.dto.UserResponse(p.id, p.username, p.firstName,"
+                                    + " p.lastName, p.email, p.createdAt)"
+                                    + " from User u join u.profile p where u.username = ?1", UserResponse.class))
+                .setParameter(1, username)));
+    }
+    
+    public LoginView findLoginView(String username) {
+        return readReplica.read(username, em -> first(
+            readOnly(em.createQuery(LOGIN_VIEW + " from LuxeUser u where u.username = ?1", LoginView.class))
+                .setParameter(1, username)));
+    }
+    
+    /**
+     * Keyset page: seeks past {@code afterId} on the primary key index instead of
+     * scanning and discarding an OFFSET
+     */
+    public List<UserResponse> findResponsesAfter(long afterId, int limit) {
+        return readReplica.read((String) null, em ->
+            readOnly(em.createQuery(USER_RESPONSE + " from LuxeUser u where u.id > ?1 order by u.id",
+                                    UserResponse.class))
+                .setParameter(1, afterId)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+    
     public boolean existsByUsername(String username) {
         return find("username", username).count() > 0;
     }
@@ -23,4 +99,54 @@ public class UserRepository implements PanacheRepository<LuxeUser> {
     public boolean existsByEmail(String email) {
         return find("email", email).count() > 0;
     }
+    
+    /**
+     * Checks username and email uniqueness in a single round trip
+     * @return which of the two is already taken, username first
+     */
+    public Conflict findConflict(String username, String email) {
+        List<String> usernames = getEntityManager()
+            .createQuery("select u.username from LuxeUser u where u.username = ?1 or u.email = ?2", String.class)
+            .setParameter(1, username)
+            .setParameter(2, email)
+            .setMaxResults(2)
+            .getResultList();
+        if (usernames.isEmpty()) {
+            return Conflict.NONE;
+        }
+        return usernames.contains(username) ? Conflict.USERNAME : Conflict.EMAIL;
+    }
+    
+    /**
+     * Set-based counterpart of {@link #findConflict} for bulk imports
+     * @return {username, email} of every user taking one of the given usernames or emails
+     */
+    public List<Object[]> findExistingUsernamesAndEmails(Collection<String> usernames, Collection<String> emails) {
+        return getEntityManager()
+            .createQuery("select u.username, u.email from LuxeUser u where u.username in ?1 or u.email in ?2", Object[].class)
+            .setParameter(1, usernames)
+            .setParameter(2, emails)
+            .getResultList();
+    }
+    
+    public Stream<Object[]> streamUsernamesAndEmails() {
+        return getEntityManager()
+            .createQuery("select u.username, u.email from LuxeUser u", Object[].class)
+            .setHint("org.hibernate.fetchSize", 1000)
+            .setHint("org.hibernate.readOnly", true)
+            .getResultStream();
+    }
+    
+    /**
+     * Projections are never managed, and these hints also skip the auto-flush
+     * before the query and any dirty checking of what it loads
+     */
+    private static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+    }
+    
+    private static <T> T first(TypedQuery<T> query) {
+        return query.setMaxResults(1).getResultStream().findFirst().orElse(null);
+    }
 }
@@ -0,0 +1,107 @@
+package org.doogleoss.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Online backfill of the profile link of identities created before it
+ * existed: matches {@code users} to {@code luxe_user} by username in small
+ * batches, each in its own short transaction, while the application serves
+ * traffic. Registration and bulk import link the identities they meet
+ * themselves, the import through {@link #link(Collection)}; once a run finds
+ * nothing left, the backfill only checks again every idle interval for the
+ * few that neither saw, such as a passkey registered while its profile was
+ * being created.
+ */
+@ApplicationScoped
+public class IdentityLinkMigration {
+
+    private static final Logger LOG = Logger.getLogger(IdentityLinkMigration.class);
+
+    @ConfigProperty(name = "luxe.identity.backfill.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "luxe.identity.backfill.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "luxe.identity.backfill.idle-interval", defaultValue = "10m")
+    Duration idleInterval;
+
+    @Inject
+    EntityManager entityManager;
+
+    // System.nanoTime() before which there is no need to query again
+    private volatile long idleUntil;
+    private volatile boolean idle;
+
+    @Scheduled(every = "${luxe.identity.backfill.interval:30s}", delayed = "5s",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledBackfill() {
+        if (enabled && (!idle || System.nanoTime() - idleUntil >= 0)) {
+            backfill();
+        }
+    }
+
+    /**
+     * @return how many identities were linked
+     */
+    public int backfill() {
+        int linked = 0;
+        int batch;
+        do {
+            batch = QuarkusTransaction.requiringNew().call(this::linkBatch);
+            linked += batch;
+        } while (batch > 0);
+        if (linked > 0) {
+            LOG.infof("Linked %d identities to their profile", linked);
+        }
+        if (linked == 0) {
+            idleUntil = System.nanoTime() + idleInterval.toNanos();
+        }
+        idle = linked == 0;
+        return linked;
+    }
+
+    /**
+     * Links the identities of these usernames to their profile, in the
+     * caller's transaction.
+     *
+     * @return how many identities were linked
+     */
+    public int link(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return 0;
+        }
+        return entityManager
+            .createQuery("update User u set u.profile = (select p from LuxeUser p where p.username = u.username)"
+                         + " where u.username in ?1 and u.profile is null")
+            .setParameter(1, usernames)
+            .executeUpdate();
+    }
+
+    private int linkBatch() {
+        List<Long> ids = entityManager
+            .createQuery("select u.id from User u where u.profile is null"
+                         + " and exists (select 1 from LuxeUser p where p.username = u.username) order by u.id", Long.class)
+            .setMaxResults(batchSize)
+            .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager
+            .createQuery("update User u set u.profile = (select p from LuxeUser p where p.username = u.username)"
+                         + " where u.id in ?1 and u.profile is null")
+            .setParameter(1, ids)
+            .executeUpdate();
+    }
+}
@@ -0,0 +1,64 @@
+package org.doogleoss.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Writes the result of an HQL query as NDJSON while reading it. Rows come from
+ * a forward-only cursor on a stateless session, so nothing is kept in a
+ * persistence context and memory stays flat whatever the table size.
+ */
+@ApplicationScoped
+public class NdjsonExporter {
+
+    @ConfigProperty(name = "luxe.admin.export.fetch-size", defaultValue = "1000")
+    int fetchSize;
+
+    @ConfigProperty(name = "luxe.admin.export.timeout", defaultValue = "1h")
+    Duration timeout;
+
+    @Inject
+    StatelessSession statelessSession;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    public <T> void export(String query, Class<T> type, OutputStream out) {
+        // PostgreSQL only honors the fetch size inside a transaction, otherwise it reads the whole result
+        QuarkusTransaction.requiringNew()
+                          .timeout((int) timeout.toSeconds())
+                          .run(() -> write(query, type, out));
+    }
+
+    private <T> void write(String query, Class<T> type, OutputStream out) {
+        try (ScrollableResults<T> rows = statelessSession.createSelectionQuery(query, type)
+                                                         .setFetchSize(fetchSize)
+                                                         .setReadOnly(true)
+                                                         .scroll(ScrollMode.FORWARD_ONLY);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Newlines are written explicitly, not as root separators, so the last row is terminated too
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.next()) {
+                generator.writeObject(rows.get());
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.doogleoss.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.logging.Logger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.elytron.security.common.BcryptUtil;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Runs bcrypt hashing and verification on a dedicated, bounded pool so that
+ * password-login spikes cannot take over the request worker threads.
+ * When the pool and its queue are full, calls fail fast with a {@link SaturatedException}.
+ *
+ * The bcrypt cost is calibrated at startup so that one hash takes about
+ * {@code luxe.password.target-hash-time}, unless {@code luxe.password.cost} is set.
+ *
+ * Publishes {@code luxe.password.queue.wait}, {@code luxe.password.operation}
+ * (hash and verify) and {@code luxe.password.rejected}.
+ */
+@ApplicationScoped
+public class PasswordHasher {
+
+    private static final Logger LOG = Logger.getLogger(PasswordHasher.class);
+
+    @ConfigProperty(name = "luxe.password.pool-size")
+    Optional<Integer> poolSize;
+
+    @ConfigProperty(name = "luxe.password.queue-size", defaultValue = "64")
+    int queueSize;
+
+    @ConfigProperty(name = "luxe.password.cost")
+    Optional<Integer> configuredCost;
+
+    @ConfigProperty(name = "luxe.password.target-hash-time", defaultValue = "250ms")
+    Duration targetHashTime;
+
+    @ConfigProperty(name = "luxe.password.min-cost", defaultValue = "10")
+    int minCost;
+
+    @ConfigProperty(name = "luxe.password.max-cost", defaultValue = "14")
+    int maxCost;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    ManagedExecutor executor;
+
+    ThreadPoolExecutor pool;
+    private volatile int cost;
+
+    private Timer queueWait;
+    private Timer hashTime;
+    private Timer verifyTime;
+    private Counter rejected;
+
+    void onStart(@Observes StartupEvent event) {
+        int threads = poolSize.orElse(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger count = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                      new ArrayBlockingQueue<>(queueSize),
+                                      task -> {
+                                          Thread thread = new Thread(task, "password-hasher-" + count.incrementAndGet());
+                                          thread.setDaemon(true);
+                                          return thread;
+                                      },
+                                      new ThreadPoolExecutor.AbortPolicy());
+        queueWait = Timer.builder("luxe.password.queue.wait").publishPercentileHistogram().register(registry);
+        hashTime = operationTimer("hash");
+        verifyTime = operationTimer("verify");
+        rejected = Counter.builder("luxe.password.rejected").register(registry);
+        Gauge.builder("luxe.password.queue.size", pool, executor -> executor.getQueue().size()).register(registry);
+        cost = configuredCost.orElseGet(this::calibrate);
+        LOG.infof("Password hashing on %d threads (queue %d), bcrypt cost %d", threads, queueSize, cost);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        pool.shutdown();
+    }
+
+    public String hash(String plainPassword) {
+        int hashCost = cost;
+        return execute(hashTime, () -> BcryptUtil.bcryptHash(plainPassword, hashCost));
+    }
+
+    public boolean matches(String plainPassword, String passwordHash) {
+        if (plainPassword == null || plainPassword.isEmpty() || passwordHash == null) {
+            return false;
+        }
+        return execute(verifyTime, () -> BcryptUtil.matches(plainPassword, passwordHash));
+    }
+
+    /**
+     * Only ever raises the cost: each pod calibrates its own, and pods on
+     * different hardware must not rehash the same password back and forth
+     * or lower the cost of a stored hash.
+     *
+     * @return true when the hash was produced with a lower cost than the current one
+     */
+    public boolean needsRehash(String passwordHash) {
+        return costOf(passwordHash) < cost;
+    }
+
+    /**
+     * Hashes on the pool without waiting, for work that must not delay the caller.
+     * The hash is handed to {@code onHashed} on the application executor, so what
+     * it does with it, like a database write, never holds a hashing thread.
+     * Silently skipped when the pool is saturated.
+     */
+    public void hashAsync(String plainPassword, Consumer<String> onHashed) {
+        int hashCost = cost;
+        try {
+            pool.execute(() -> {
+                String passwordHash = hashTime.record(() -> BcryptUtil.bcryptHash(plainPassword, hashCost));
+                executor.execute(() -> onHashed.accept(passwordHash));
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOG.debug("Password hasher saturated, skipping background rehash");
+        }
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    static int costOf(String passwordHash) {
+        // Modular crypt format: $2a$10$<salt and hash>
+        if (passwordHash == null || passwordHash.length() < 7 || passwordHash.charAt(0) != '$') {
+            return -1;
+        }
+        int end = passwordHash.indexOf('$', 1);
+        if (end < 0 || end + 3 > passwordHash.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(passwordHash, end + 1, end + 3, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int calibrate() {
+        BcryptUtil.bcryptHash("calibration", minCost);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BcryptUtil.bcryptHash("calibration", minCost);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        // Each extra cost step doubles the work
+        int calibrated = minCost;
+        long estimate = best;
+        while (calibrated < maxCost && estimate * 2 <= targetHashTime.toNanos()) {
+            estimate *= 2;
+            calibrated++;
+        }
+        LOG.infof("Calibrated bcrypt cost %d (%d ms per hash at cost %d, target %d ms)",
+                  calibrated, TimeUnit.NANOSECONDS.toMillis(best), minCost, targetHashTime.toMillis());
+        return calibrated;
+    }
+
+    private Timer operationTimer(String operation) {
+        return Timer.builder("luxe.password.operation")
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(registry);
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = pool.submit(() -> {
+                long started = System.nanoTime();
+                queueWait.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SaturatedException("Too many concurrent password operations, please retry");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.doogleoss.service;
+
+/**
+ * Thrown when a bounded resource is full and the request is rejected
+ * immediately instead of queueing. Carries no stack trace so that rejecting
+ * is cheap under load.
+ */
+public class SaturatedException extends RuntimeException {
+
+    public SaturatedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,41 @@
+package org.doogleoss.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Expected failures of {@link UserService}, with the HTTP status they map to
+ * and their JSON error body, serialized once.
+ */
+public enum UserError {
+    USER_NOT_FOUND(404, "User not found"),
+    USERNAME_EXISTS(400, "Username already exists"),
+    EMAIL_EXISTS(400, "Email already exists"),
+    USERNAME_OR_EMAIL_EXISTS(400, "Username or email already exists"),
+    INVALID_CREDENTIALS(401, "Invalid username or password");
+
+    private final int status;
+    private final String message;
+    private final byte[] json;
+
+    UserError(int status, String message) {
+        this.status = status;
+        this.message = message;
+        // Messages are constants without characters to escape
+        this.json = ("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @return the shared {@code {"error": message}} body, not to be modified
+     */
+    public byte[] json() {
+        return json;
+    }
+}
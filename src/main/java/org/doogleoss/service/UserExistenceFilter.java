@@ -0,0 +1,77 @@
+package org.doogleoss.service;
+
+import java.util.stream.Stream;
+
+import org.doogleoss.repository.UserRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory Bloom filter over registered usernames and emails, preloaded at
+ * startup and updated on every registration. A "not present" answer lets
+ * registration skip the uniqueness query; "maybe present" still goes to the
+ * database, and the unique constraints remain the source of truth for races.
+ */
+@ApplicationScoped
+public class UserExistenceFilter {
+
+    private static final Logger LOG = Logger.getLogger(UserExistenceFilter.class);
+
+    @ConfigProperty(name = "luxe.registration.existence-filter.expected-users", defaultValue = "1000000")
+    long expectedUsers;
+
+    @ConfigProperty(name = "luxe.registration.existence-filter.false-positive-probability", defaultValue = "0.01")
+    double falsePositiveProbability;
+
+    @Inject
+    UserRepository userRepository;
+
+    private volatile BloomFilter filter;
+
+    void onStart(@Observes StartupEvent event) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            long users = userRepository.count();
+            BloomFilter loaded = new BloomFilter(2 * Math.max(expectedUsers, 2 * users), falsePositiveProbability);
+            try (Stream<Object[]> rows = userRepository.streamUsernamesAndEmails()) {
+                rows.forEach(row -> {
+                    loaded.add(usernameKey((String) row[0]));
+                    loaded.add(emailKey((String) row[1]));
+                });
+            }
+            filter = loaded;
+            LOG.infof("Loaded %d users into the registration existence filter", users);
+        });
+    }
+
+    public boolean mightContainUsername(String username) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(usernameKey(username));
+    }
+
+    public boolean mightContainEmail(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(emailKey(email));
+    }
+
+    public void add(String username, String email) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(usernameKey(username));
+            current.add(emailKey(email));
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + username;
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email;
+    }
+}
@@ -0,0 +1,294 @@
+package org.doogleoss.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.doogleoss.dto.ImportReport;
+import org.doogleoss.dto.ImportReport.RowFailure;
+import org.doogleoss.dto.UserImportRow;
+import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.repository.UserRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Streams users from NDJSON or CSV into {@code luxe_user} in chunked
+ * transactions. Each chunk is checked for duplicates with one set-based query
+ * and inserted through JDBC batching; a chunk that still hits a unique
+ * constraint is retried row by row so only the offending rows fail. Passkey
+ * identities already registered under an imported username are linked in the
+ * same transaction. Any other error stops the import and is reported in
+ * {@link ImportReport#aborted}.
+ */
+@ApplicationScoped
+public class UserImportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    @ConfigProperty(name = "luxe.import.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "luxe.import.max-reported-failures", defaultValue = "1000")
+    int maxReportedFailures;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    UserExistenceFilter existenceFilter;
+
+    @Inject
+    IdentityLinkMigration identityLinks;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private record PendingRow(long line, UserImportRow row) {
+    }
+
+    private record ChunkResult(List<PendingRow> imported, List<RowFailure> failures) {
+    }
+
+    public ImportReport importUsers(InputStream input, Format format) {
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+        long line = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = null;
+            if (format == Format.CSV) {
+                String header = reader.readLine();
+                line++;
+                if (header == null) {
+                    throw new IllegalArgumentException("Missing CSV header");
+                }
+                columns = csvColumns(header);
+            }
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                UserImportRow row;
+                try {
+                    row = format == Format.CSV ? parseCsv(text, columns) : objectMapper.readValue(text, UserImportRow.class);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    fail(report, new RowFailure(line, "Malformed row: " + e.getMessage()));
+                    continue;
+                }
+                // A literal null line parses to no row at all
+                if (row == null) {
+                    fail(report, new RowFailure(line, "Malformed row: not a JSON object"));
+                    continue;
+                }
+                String invalid = validate(row);
+                if (invalid != null) {
+                    fail(report, new RowFailure(line, invalid));
+                    continue;
+                }
+                chunk.add(new PendingRow(line, row));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        } catch (IOException e) {
+            // Rows of earlier chunks are committed; report where the input stopped
+            fail(report, new RowFailure(line + 1, "Failed to read input: " + e.getMessage()));
+        } catch (RuntimeException e) {
+            // Any other chunk failure would fail the rest of the rows the same way: stop at the first
+            report.aborted = "Import stopped at line " + line + ", rows before its chunk are imported: "
+                + e.getMessage();
+        }
+        long elapsed = System.nanoTime() - start;
+        report.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        report.rowsPerSecond = report.imported / Math.max(elapsed / 1e9, 1e-9);
+        return report;
+    }
+
+    private void importChunk(List<PendingRow> chunk, ImportReport report) {
+        ChunkResult result;
+        try {
+            result = QuarkusTransaction.requiringNew().call(() -> persistChunk(chunk));
+        } catch (RuntimeException e) {
+            if (!UserService.isConstraintViolation(e)) {
+                throw e;
+            }
+            // A concurrent insert won a unique constraint: isolate the offending rows
+            for (PendingRow row : chunk) {
+                try {
+                    apply(QuarkusTransaction.requiringNew().call(() -> persistChunk(List.of(row))), report);
+                } catch (RuntimeException rowFailure) {
+                    if (!UserService.isConstraintViolation(rowFailure)) {
+                        throw rowFailure;
+                    }
+                    fail(report, new RowFailure(row.line(), "Username or email already exists"));
+                }
+            }
+            return;
+        }
+        apply(result, report);
+    }
+
+    private ChunkResult persistChunk(List<PendingRow> chunk) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (PendingRow pending : chunk) {
+            usernames.add(pending.row().username);
+            emails.add(pending.row().email);
+        }
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (Object[] existing : userRepository.findExistingUsernamesAndEmails(usernames, emails)) {
+            takenUsernames.add((String) existing[0]);
+            takenEmails.add((String) existing[1]);
+        }
+
+        List<PendingRow> imported = new ArrayList<>(chunk.size());
+        List<String> importedUsernames = new ArrayList<>(chunk.size());
+        List<RowFailure> failures = new ArrayList<>();
+        for (PendingRow pending : chunk) {
+            UserImportRow row = pending.row();
+            // Both checked before either is taken: a refused row must not hold its username or email.
+            // The sets also catch duplicates within the import itself
+            if (takenUsernames.contains(row.username)) {
+                failures.add(new RowFailure(pending.line(), "Username already exists"));
+            } else if (takenEmails.contains(row.email)) {
+                failures.add(new RowFailure(pending.line(), "Email already exists"));
+            } else {
+                takenUsernames.add(row.username);
+                takenEmails.add(row.email);
+                LuxeUser user = new LuxeUser(row.username, row.firstName, row.lastName, row.email);
+                user.password = row.passwordHash;
+                userRepository.persist(user);
+                imported.add(pending);
+                importedUsernames.add(row.username);
+            }
+        }
+        // One JDBC batch per statement-batch-size rows, then keep the persistence context small
+        userRepository.flush();
+        identityLinks.link(importedUsernames);
+        userRepository.getEntityManager().clear();
+        return new ChunkResult(imported, failures);
+    }
+
+    private void apply(ChunkResult result, ImportReport report) {
+        for (PendingRow pending : result.imported()) {
+            existenceFilter.add(pending.row().username, pending.row().email);
+        }
+        report.imported += result.imported().size();
+        for (RowFailure failure : result.failures()) {
+            fail(report, failure);
+        }
+    }
+
+    private void fail(ImportReport report, RowFailure failure) {
+        report.failed++;
+        if (report.failures.size() < maxReportedFailures) {
+            report.failures.add(failure);
+        }
+    }
+
+    private static String validate(UserImportRow row) {
+        if (isBlank(row.username) || isBlank(row.firstName) || isBlank(row.lastName) || isBlank(row.email)) {
+            return "username, firstName, lastName and email are required";
+        }
+        if (row.password != null) {
+            return "Plain passwords are not accepted in bulk import, send a bcrypt passwordHash";
+        }
+        if (row.passwordHash != null
+            && (row.passwordHash.length() != 60 || PasswordHasher.costOf(row.passwordHash) < 4)) {
+            return "passwordHash is not a bcrypt hash";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        return columns;
+    }
+
+    private static UserImportRow parseCsv(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        UserImportRow row = new UserImportRow();
+        row.username = column(values, columns, "username");
+        row.firstName = column(values, columns, "firstName");
+        row.lastName = column(values, columns, "lastName");
+        row.email = column(values, columns, "email");
+        row.passwordHash = column(values, columns, "passwordHash");
+        row.password = column(values, columns, "password");
+        return row;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    /**
+     * RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
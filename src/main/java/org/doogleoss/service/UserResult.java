@@ -0,0 +1,33 @@
+package org.doogleoss.service;
+
+import org.doogleoss.dto.UserResponse;
+import org.doogleoss.metrics.Outcome;
+
+/**
+ * What a {@link UserService} call returns: the user, or the expected failure
+ * that prevented it. Failures are shared instances, so a refused login or a
+ * missing user costs neither an exception nor an allocation.
+ */
+public record UserResult(UserResponse user, UserError error) implements Outcome {
+
+    private static final UserResult[] FAILURES = new UserResult[UserError.values().length];
+
+    static {
+        for (UserError error : UserError.values()) {
+            FAILURES[error.ordinal()] = new UserResult(null, error);
+        }
+    }
+
+    public static UserResult of(UserResponse user) {
+        return new UserResult(user, null);
+    }
+
+    public static UserResult failure(UserError error) {
+        return FAILURES[error.ordinal()];
+    }
+
+    @Override
+    public boolean succeeded() {
+        return error == null;
+    }
+}
@@ -6,27 +6,48 @@ import org.doogleoss.dto.LoginRequest;
 import org.doogleoss.dto.UserRegistrationRequest;
 import org.doogleoss.dto.UserResponse;
 import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.metrics.Measured;
+import org.doogleoss.repository.ReadReplica;
 import org.doogleoss.repository.UserRepository;
+import org.doogleoss.repository.UserRepository.LoginView;
+import org.doogleoss.webauthn.User;
+import org.hibernate.exception.ConstraintViolationException;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 
+@Measured("luxe.user.service")
 @ApplicationScoped
 public class UserService {
     
     @Inject
     UserRepository userRepository;
     
+    @Inject
+    PasswordHasher passwordHasher;
+    
+    @Inject
+    UserExistenceFilter existenceFilter;
+    
+    @Inject
+    ReadReplica readReplica;
+    
     @Transactional
-    public UserResponse registerUser(UserRegistrationRequest request) {
-        // Check if user already exists
-        if (userRepository.existsByUsername(request.username)) {
-            throw new IllegalArgumentException("Username already exists");
-        }
-        
-        if (userRepository.existsByEmail(request.email)) {
-            throw new IllegalArgumentException("Email already exists");
+    public UserResult registerUser(UserRegistrationRequest request) {
+        // Check if user already exists, only asking the database when the filter cannot rule it out
+        if (existenceFilter.mightContainUsername(request.username)
+                || existenceFilter.mightContainEmail(request.email)) {
+            UserError conflict = switch (userRepository.findConflict(request.username, request.email)) {
+                case USERNAME -> UserError.USERNAME_EXISTS;
+                case EMAIL -> UserError.EMAIL_EXISTS;
+                case NONE -> null;
+            };
+            if (conflict != null) {
+                return UserResult.failure(conflict);
+            }
         }
         
         // Create and persist new user
@@ -39,49 +60,71 @@ public class UserService {
         
         // Set password if provided (optional for passkey-only users)
         if (request.password != null && !request.password.isEmpty()) {
-            user.setPassword(request.password);
+            user.password = passwordHasher.hash(request.password);
         }
         
-        userRepository.persist(user);
-        return toUserResponse(user);
+        try {
+            userRepository.persistAndFlush(user);
+        } catch (PersistenceException e) {
+            // Lost a race with a concurrent registration of the same username or email
+            if (isConstraintViolation(e)) {
+                QuarkusTransaction.setRollbackOnly();
+                return UserResult.failure(UserError.USERNAME_OR_EMAIL_EXISTS);
+            }
+            throw e;
+        }
+        existenceFilter.add(user.username, user.email);
+        readReplica.wrote(user.username);
+        // Passkey registered before the profile: link them now
+        User identity = User.findByUsername(user.username);
+        if (identity != null && identity.profile == null) {
+            identity.profile = user;
+        }
+        return UserResult.of(toUserResponse(user));
     }
     
-    public UserResponse loginUser(LoginRequest request) {
-        LuxeUser user = userRepository.findByUsername(request.username);
+    public UserResult loginUser(LoginRequest request) {
+        LoginView user = userRepository.findLoginView(request.username);
         
         if (user == null) {
-            throw new IllegalArgumentException("Invalid username or password");
+            return UserResult.failure(UserError.INVALID_CREDENTIALS);
         }
         
         // Validate password
-        if (!user.validatePassword(request.password)) {
-            throw new IllegalArgumentException("Invalid username or password");
+        if (!passwordHasher.matches(request.password, user.password())) {
+            return UserResult.failure(UserError.INVALID_CREDENTIALS);
         }
         
-        return toUserResponse(user);
+        // Upgrade hashes made with a lower cost, off the login path
+        if (passwordHasher.needsRehash(user.password())) {
+            rehashPassword(user.id(), user.password(), request.password);
+        }
+        
+        return UserResult.of(user.toUserResponse());
     }
     
-    public UserResponse getUserByUsername(String username) {
-        LuxeUser user = userRepository.findByUsername(username);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
-        }
-        return toUserResponse(user);
+    public UserResult getUserByUsername(String username) {
+        return found(userRepository.findResponseByUsername(username));
     }
     
-    public UserResponse getUserById(Long id) {
-        LuxeUser user = userRepository.findById(id);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
-        }
-        return toUserResponse(user);
+    /**
+     * Profile of the signed-in user. Falls back to a username match for
+     * identities the backfill of {@link IdentityLinkMigration} has not linked yet.
+     */
+    public UserResult getCurrentUser(String username) {
+        UserResponse user = userRepository.findResponseByIdentity(username);
+        return user != null ? UserResult.of(user) : getUserByUsername(username);
+    }
+    
+    public UserResult getUserById(Long id) {
+        return found(userRepository.findResponseById(id));
     }
     
     @Transactional
-    public UserResponse updateUser(Long id, UserRegistrationRequest request) {
+    public UserResult updateUser(Long id, UserRegistrationRequest request) {
         LuxeUser user = userRepository.findById(id);
         if (user == null) {
-            throw new IllegalArgumentException("User not found");
+            return UserResult.failure(UserError.USER_NOT_FOUND);
         }
         
         user.firstName = request.firstName;
@@ -90,11 +133,32 @@ public class UserService {
         
         // Update password if provided
         if (request.password != null && !request.password.isEmpty()) {
-            user.setPassword(request.password);
+            user.password = passwordHasher.hash(request.password);
         }
         
         userRepository.persist(user);
-        return toUserResponse(user);
+        readReplica.wrote(user.username);
+        readReplica.wrote("id:" + id);
+        return UserResult.of(toUserResponse(user));
+    }
+    
+    private void rehashPassword(Long id, String currentHash, String plainPassword) {
+        passwordHasher.hashAsync(plainPassword, newHash -> QuarkusTransaction.requiringNew().run(() ->
+            // Skipped if the password was changed in the meantime
+            userRepository.update("password = ?1 where id = ?2 and password = ?3", newHash, id, currentHash)));
+    }
+    
+    private static UserResult found(UserResponse user) {
+        return user != null ? UserResult.of(user) : UserResult.failure(UserError.USER_NOT_FOUND);
+    }
+    
+    static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
     }
     
     public UserResponse toUserResponse(LuxeUser user) {
@@ -0,0 +1,162 @@
+package org.doogleoss.web;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.vertx.http.runtime.RouteConstants;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Admission control for the login and registration endpoints, ahead of any
+ * database or bcrypt work: a token bucket per client address and one per
+ * username (see {@link TokenBuckets}). Both have to admit a request.
+ *
+ * The client bucket, and the username bucket of the {@code /q/webauthn/}
+ * ceremony endpoints (their {@code username} query parameter), are checked by a
+ * route filter that answers 429 before the request reaches a handler.
+ * {@code /api/users/login} and {@code /api/users/register} take the username
+ * from their JSON body and call {@link #admitUsername(String)} themselves.
+ *
+ * The client address is the request's remote address, which the
+ * {@code quarkus.http.proxy.*} settings resolve to the forwarded one when the
+ * request comes through a trusted proxy; otherwise every client behind a load
+ * balancer would share its bucket.
+ */
+@ApplicationScoped
+public class AdmissionControl {
+
+    private static final Set<String> GUARDED = Set.of("/api/users/login", "/api/users/register");
+    // Not webauthn.js or logout: a page load must not spend the attempts of the client
+    private static final Set<String> CEREMONIES = Set.of("login-options-challenge", "login",
+                                                         "register-options-challenge", "register", "callback");
+    private static final Buffer TOO_MANY_REQUESTS = Buffer.buffer("{\"error\":\"Too many attempts, retry later\"}");
+
+    @ConfigProperty(name = "luxe.admission.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "luxe.admission.client.permits-per-minute", defaultValue = "60")
+    int clientPermitsPerMinute;
+
+    @ConfigProperty(name = "luxe.admission.client.burst", defaultValue = "20")
+    int clientBurst;
+
+    @ConfigProperty(name = "luxe.admission.username.permits-per-minute", defaultValue = "10")
+    int usernamePermitsPerMinute;
+
+    @ConfigProperty(name = "luxe.admission.username.burst", defaultValue = "5")
+    int usernameBurst;
+
+    @ConfigProperty(name = "luxe.admission.max-buckets", defaultValue = "100000")
+    int maxBuckets;
+
+    @ConfigProperty(name = "quarkus.http.non-application-root-path", defaultValue = "q")
+    String nonApplicationRootPath;
+
+    @Inject
+    MeterRegistry registry;
+
+    private TokenBuckets clients;
+    private TokenBuckets usernames;
+    private Counter clientsRejected;
+    private Counter usernamesRejected;
+    private String webAuthnPrefix;
+
+    @PostConstruct
+    void init() {
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4;
+        long minute = TimeUnit.MINUTES.toNanos(1);
+        clients = new TokenBuckets(clientPermitsPerMinute, minute, clientBurst, maxBuckets, stripes);
+        usernames = new TokenBuckets(usernamePermitsPerMinute, minute, usernameBurst, maxBuckets, stripes);
+        clientsRejected = Counter.builder("luxe.admission.rejected").tag("key", "client").register(registry);
+        usernamesRejected = Counter.builder("luxe.admission.rejected").tag("key", "username").register(registry);
+        Gauge.builder("luxe.admission.buckets", clients, TokenBuckets::size).tag("key", "client").register(registry);
+        Gauge.builder("luxe.admission.buckets", usernames, TokenBuckets::size).tag("key", "username")
+             .register(registry);
+        webAuthnPrefix = "/" + nonApplicationRootPath + "/webauthn/";
+    }
+
+    void installFilter(@Observes Router router) {
+        if (enabled) {
+            // Right after the upload limit check, ahead of every application route
+            router.route().order(RouteConstants.ROUTE_ORDER_UPLOAD_LIMIT + 1).handler(this::filter);
+        }
+    }
+
+    void filter(RoutingContext ctx) {
+        String path = ctx.normalizedPath();
+        boolean webAuthn = path.startsWith(webAuthnPrefix)
+            && CEREMONIES.contains(path.substring(webAuthnPrefix.length()));
+        if (!webAuthn && !GUARDED.contains(path)) {
+            ctx.next();
+            return;
+        }
+        SocketAddress client = ctx.request().remoteAddress();
+        long wait = admitClient(client == null ? "" : client.hostAddress());
+        if (wait == 0 && webAuthn) {
+            String username = ctx.request().getParam("username");
+            if (username != null) {
+                wait = admitUsername(username);
+            }
+        }
+        if (wait == 0) {
+            ctx.next();
+            return;
+        }
+        ctx.response()
+           .setStatusCode(429)
+           .putHeader(HttpHeaders.RETRY_AFTER, Long.toString(wait))
+           .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+           .end(TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * @return 0 when the client may go on, otherwise the seconds to wait
+     */
+    public long admitClient(String address) {
+        long wait = enabled ? clients.tryAcquire(address, System.nanoTime()) : 0;
+        if (wait > 0) {
+            clientsRejected.increment();
+        }
+        return toSeconds(wait);
+    }
+
+    /**
+     * @return 0 when an attempt for the username may go on, otherwise the seconds to wait
+     */
+    public long admitUsername(String username) {
+        if (!enabled || username == null) {
+            return 0;
+        }
+        long wait = usernames.tryAcquire(username.trim().toLowerCase(Locale.ROOT), System.nanoTime());
+        if (wait > 0) {
+            usernamesRejected.increment();
+        }
+        return toSeconds(wait);
+    }
+
+    @Scheduled(every = "${luxe.admission.sweep-interval:30s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evictIdle() {
+        long now = System.nanoTime();
+        clients.evictIdle(now);
+        usernames.evictIdle(now);
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos == 0 ? 0 : TimeUnit.NANOSECONDS.toSeconds(nanos - 1) + 1;
+    }
+}
@@ -0,0 +1,69 @@
+package org.doogleoss.web;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.vertx.http.runtime.RouteConstants;
+import io.quarkus.vertx.http.runtime.VertxHttpRecorder;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+/**
+ * Request body limit per route. {@code quarkus.http.limits.max-body-size} is
+ * global, so it is set to the largest limit, the one of the bulk import; this
+ * filter holds every other route to {@code luxe.http.max-body-size}. A body
+ * with a Content-Length above it is refused with 413 before it is read; a
+ * body without one is counted against it as it is read.
+ */
+@ApplicationScoped
+public class BodyLimits {
+
+    static final String IMPORT_PATH = "/api/users/import";
+
+    @ConfigProperty(name = "luxe.http.max-body-size", defaultValue = "10M")
+    MemorySize maxBodySize;
+
+    private long limit;
+
+    @PostConstruct
+    void init() {
+        limit = maxBodySize.asLongValue();
+    }
+
+    void installFilter(@Observes Router router) {
+        // Right after the global upload limit check, which lets bodies up to the import limit through
+        router.route().order(RouteConstants.ROUTE_ORDER_UPLOAD_LIMIT + 1).handler(this::filter);
+    }
+
+    void filter(RoutingContext ctx) {
+        if (IMPORT_PATH.equals(ctx.normalizedPath())) {
+            ctx.next();
+            return;
+        }
+        String length = ctx.request().getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (length == null) {
+            // Read by the same input stream as the global limit
+            ctx.put(VertxHttpRecorder.MAX_REQUEST_SIZE_KEY, limit);
+        } else if (parse(length) > limit) {
+            ctx.response()
+               .setStatusCode(413)
+               .putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE)
+               .end();
+            return;
+        }
+        ctx.next();
+    }
+
+    private static long parse(String length) {
+        try {
+            return Long.parseLong(length);
+        } catch (NumberFormatException e) {
+            // Malformed: left to the HTTP server
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.doogleoss.web;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.vertx.http.runtime.RouteConstants;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+/**
+ * Serves the Vite bundle from disk with the gzip and brotli variants the
+ * build writes next to each file, picked from {@code Accept-Encoding} and
+ * sent with {@code sendFile}, so the kernel copies the bytes and nothing is
+ * compressed per request.
+ *
+ * Content-hashed files under {@code /assets/} are cached for a year as
+ * immutable; {@code index.html} and the other unhashed files for
+ * {@code luxe.assets.entry-max-age}. Page requests that no other route
+ * answers, the client-side routes of the single-page app, get
+ * {@code index.html}. The files are listed once at startup: when the
+ * application runs from a jar they are first extracted to a temporary
+ * directory, unless {@code luxe.assets.directory} points at them.
+ */
+@ApplicationScoped
+public class PrecompressedAssets {
+
+    private static final Logger LOG = Logger.getLogger(PrecompressedAssets.class);
+
+    static final String RESOURCES = "META-INF/resources";
+    static final String ENTRY_POINT = "index.html";
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+        Map.entry("html", "text/html; charset=utf-8"),
+        Map.entry("js", "text/javascript; charset=utf-8"),
+        Map.entry("mjs", "text/javascript; charset=utf-8"),
+        Map.entry("css", "text/css; charset=utf-8"),
+        Map.entry("json", "application/json"),
+        Map.entry("map", "application/json"),
+        Map.entry("webmanifest", "application/manifest+json"),
+        Map.entry("txt", "text/plain; charset=utf-8"),
+        Map.entry("xml", "application/xml"),
+        Map.entry("svg", "image/svg+xml"),
+        Map.entry("ico", "image/x-icon"),
+        Map.entry("png", "image/png"),
+        Map.entry("jpg", "image/jpeg"),
+        Map.entry("jpeg", "image/jpeg"),
+        Map.entry("webp", "image/webp"),
+        Map.entry("woff", "font/woff"),
+        Map.entry("woff2", "font/woff2"));
+
+    /**
+     * One file as it can be sent: its identity, gzip and brotli encodings
+     */
+    record Asset(String contentType, String cacheControl, String lastModified,
+                 Variant identity, Variant gzip, Variant brotli) {
+    }
+
+    record Variant(String file, long length, String etag) {
+    }
+
+    @ConfigProperty(name = "luxe.assets.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "luxe.assets.directory")
+    Optional<Path> directory;
+
+    @ConfigProperty(name = "luxe.assets.entry-max-age", defaultValue = "60s")
+    Duration entryMaxAge;
+
+    @ConfigProperty(name = "quarkus.http.non-application-root-path", defaultValue = "q")
+    String nonApplicationRootPath;
+
+    private Map<String, Asset> assets = Map.of();
+
+    void init(@Observes Router router) {
+        if (!enabled) {
+            return;
+        }
+        Path root = directory.orElseGet(PrecompressedAssets::bundledResources);
+        if (root == null || !Files.isRegularFile(root.resolve(ENTRY_POINT))) {
+            LOG.infof("No frontend bundle with %s found, static files are served without precompression",
+                      ENTRY_POINT);
+            return;
+        }
+        assets = scan(root);
+        router.route().order(RouteConstants.ROUTE_ORDER_BEFORE_DEFAULT).handler(this::handle);
+        // Last: a REST endpoint on the same path, such as /hello, answers first
+        router.route().order(RouteConstants.ROUTE_ORDER_AFTER_DEFAULT + 1).handler(this::handlePageRoute);
+        LOG.infof("Serving %d frontend files from %s", assets.size(), root);
+    }
+
+    void handle(RoutingContext ctx) {
+        HttpMethod method = ctx.request().method();
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            ctx.next();
+            return;
+        }
+        String path = ctx.normalizedPath();
+        Asset asset = assets.get(path.equals("/") ? "/" + ENTRY_POINT : path);
+        if (asset == null) {
+            ctx.next();
+            return;
+        }
+        send(ctx, asset);
+    }
+
+    void handlePageRoute(RoutingContext ctx) {
+        HttpMethod method = ctx.request().method();
+        if ((method != HttpMethod.GET && method != HttpMethod.HEAD) || !isPageRoute(ctx, ctx.normalizedPath())) {
+            ctx.next();
+            return;
+        }
+        send(ctx, assets.get("/" + ENTRY_POINT));
+    }
+
+    private void send(RoutingContext ctx, Asset asset) {
+        Variant variant = negotiate(ctx.request().getHeader(HttpHeaders.ACCEPT_ENCODING), asset);
+        HttpServerResponse response = ctx.response();
+        response.putHeader(HttpHeaders.CONTENT_TYPE, asset.contentType())
+                .putHeader(HttpHeaders.CACHE_CONTROL, asset.cacheControl())
+                .putHeader(HttpHeaders.LAST_MODIFIED, asset.lastModified())
+                .putHeader(HttpHeaders.ETAG, variant.etag());
+        if (asset.gzip() != null || asset.brotli() != null) {
+            response.putHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (variant == asset.brotli()) {
+            response.putHeader(HttpHeaders.CONTENT_ENCODING, "br");
+        } else if (variant == asset.gzip()) {
+            response.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        if (variant.etag().equals(ctx.request().getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatusCode(304).end();
+        } else if (ctx.request().method() == HttpMethod.HEAD) {
+            response.putHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(variant.length())).end();
+        } else {
+            response.sendFile(variant.file());
+        }
+    }
+
+    /**
+     * The smallest encoding the client accepts: brotli, then gzip, then none
+     */
+    static Variant negotiate(String acceptEncoding, Asset asset) {
+        if (acceptEncoding == null) {
+            return asset.identity();
+        }
+        boolean brotli = false;
+        boolean gzip = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            boolean refused = parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            if (!refused) {
+                brotli |= parts[0].trim().equalsIgnoreCase("br");
+                gzip |= parts[0].trim().equalsIgnoreCase("gzip");
+            }
+        }
+        if (brotli && asset.brotli() != null) {
+            return asset.brotli();
+        }
+        if (gzip && asset.gzip() != null) {
+            return asset.gzip();
+        }
+        return asset.identity();
+    }
+
+    private boolean isPageRoute(RoutingContext ctx, String path) {
+        String accept = ctx.request().getHeader(HttpHeaders.ACCEPT);
+        String last = path.substring(path.lastIndexOf('/') + 1);
+        return accept != null && accept.contains("text/html") && !last.contains(".")
+               && !path.startsWith("/api/") && !path.startsWith("/" + nonApplicationRootPath + "/");
+    }
+
+    private Map<String, Asset> scan(Path root) {
+        Map<String, Asset> scanned = new HashMap<>();
+        String entryCacheControl = "public, max-age=" + entryMaxAge.toSeconds() + ", must-revalidate";
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".gz") || name.endsWith(".br")) {
+                    continue;
+                }
+                String path = "/" + root.relativize(file).toString().replace('\\', '/');
+                // Vite names everything it emits under assets/ after its content hash
+                String cacheControl = path.startsWith("/assets/") ? IMMUTABLE : entryCacheControl;
+                Instant modified = Files.getLastModifiedTime(file).toInstant();
+                String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(modified.atOffset(ZoneOffset.UTC));
+                scanned.put(path, new Asset(contentType(name), cacheControl, lastModified,
+                                            variant(file, modified, ""),
+                                            variant(file.resolveSibling(name + ".gz"), modified, "-gzip"),
+                                            variant(file.resolveSibling(name + ".br"), modified, "-br")));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Map.copyOf(scanned);
+    }
+
+    private static Variant variant(Path file, Instant modified, String suffix) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        long length = Files.size(file);
+        String etag = "\"" + Long.toHexString(modified.toEpochMilli()) + "-" + Long.toHexString(length) + suffix + "\"";
+        return new Variant(file.toAbsolutePath().toString(), length, etag);
+    }
+
+    private static String contentType(String name) {
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    /**
+     * The directory holding the bundle on the classpath, extracted first when it is inside a jar
+     */
+    private static Path bundledResources() {
+        URL entryPoint = Thread.currentThread().getContextClassLoader().getResource(RESOURCES + "/" + ENTRY_POINT);
+        if (entryPoint == null) {
+            return null;
+        }
+        try {
+            URI uri = entryPoint.toURI();
+            if ("file".equals(uri.getScheme())) {
+                return Path.of(uri).getParent();
+            }
+            if ("jar".equals(uri.getScheme())) {
+                return extract(uri);
+            }
+        } catch (URISyntaxException | IOException e) {
+            LOG.warnf(e, "Could not read the frontend bundle at %s", entryPoint);
+        }
+        return null;
+    }
+
+    private static Path extract(URI entryPoint) throws IOException {
+        Path target = Files.createTempDirectory("luxe-assets");
+        try (FileSystem jar = FileSystems.newFileSystem(entryPoint, Map.of());
+             Stream<Path> files = Files.walk(jar.getPath(RESOURCES))) {
+            Path source = jar.getPath(RESOURCES);
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path copy = target.resolve(source.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(file, copy);
+                    Files.setLastModifiedTime(copy, Files.getLastModifiedTime(file));
+                }
+            }
+        }
+        return target;
+    }
+}
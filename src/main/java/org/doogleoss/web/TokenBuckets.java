@@ -0,0 +1,126 @@
+package org.doogleoss.web;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets by key, each one a single {@link AtomicLong} updated by CAS.
+ * A bucket stores its theoretical arrival time (GCRA): the instant it would
+ * be full again. A request is admitted when that instant is at most
+ * {@code burst} intervals ahead, and pushes it one interval further.
+ *
+ * A bucket whose instant has passed is full, which is the same as having no
+ * bucket, so idle buckets are evicted without losing anything. The keys are
+ * split over stripes, each with its own map and capacity; a stripe that is
+ * full of active buckets sends new keys to one shared overflow bucket, so
+ * memory stays bounded even when every request uses a new key.
+ */
+final class TokenBuckets {
+
+    // Marks a bucket being evicted: callers that see it take a fresh bucket
+    private static final long EVICTED = Long.MIN_VALUE;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final long interval;
+    private final long tolerance;
+    private final int capacityPerStripe;
+    private final Map<String, AtomicLong>[] stripes;
+    private final AtomicLong[] overflow;
+    private final AtomicLong[] sweptAt;
+
+    /**
+     * @param permits requests admitted per {@code per} nanoseconds, once the burst is spent
+     * @param burst requests admitted at once by a full bucket
+     * @param maxBuckets upper bound of buckets kept
+     */
+    @SuppressWarnings("unchecked")
+    TokenBuckets(long permits, long per, int burst, int maxBuckets, int stripeCount) {
+        this.interval = Math.max(1, per / permits);
+        this.tolerance = interval * (burst - 1);
+        this.capacityPerStripe = Math.max(1, maxBuckets / stripeCount);
+        this.stripes = new Map[stripeCount];
+        this.overflow = new AtomicLong[stripeCount];
+        this.sweptAt = new AtomicLong[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            overflow[i] = new AtomicLong(Long.MIN_VALUE + 1);
+            sweptAt[i] = new AtomicLong(NEVER);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of {@code key}
+     *
+     * @return 0 when admitted, otherwise the nanoseconds until a token is available
+     */
+    long tryAcquire(String key, long now) {
+        int stripe = (key.hashCode() & 0x7fffffff) % stripes.length;
+        while (true) {
+            AtomicLong bucket = bucket(stripe, key, now);
+            long arrival = bucket.get();
+            while (arrival != EVICTED) {
+                // nanoTime values only compare by their difference, which survives wrapping
+                long start = arrival - now > 0 ? arrival : now;
+                if (start - now > tolerance) {
+                    return start - now - tolerance;
+                }
+                long witness = bucket.compareAndExchange(arrival, start + interval);
+                if (witness == arrival) {
+                    return 0;
+                }
+                arrival = witness;
+            }
+            // Evicted while we looked at it: help remove it and take a fresh one
+            stripes[stripe].remove(key, bucket);
+        }
+    }
+
+    /**
+     * Drops the buckets that are full again
+     *
+     * @return the number of buckets left
+     */
+    int evictIdle(long now) {
+        int left = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            left += evictIdle(stripes[i], now);
+        }
+        return left;
+    }
+
+    int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucket(int stripe, String key, long now) {
+        Map<String, AtomicLong> buckets = stripes[stripe];
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= capacityPerStripe) {
+            // Full of active buckets: sweep at most once per interval, new keys share the overflow bucket meanwhile
+            long swept = sweptAt[stripe].get();
+            if (swept != NEVER && now - swept < interval || !sweptAt[stripe].compareAndSet(swept, now)
+                || evictIdle(buckets, now) >= capacityPerStripe) {
+                return overflow[stripe];
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private static int evictIdle(Map<String, AtomicLong> buckets, long now) {
+        buckets.entrySet().removeIf(entry -> {
+            AtomicLong bucket = entry.getValue();
+            long arrival = bucket.get();
+            // Only once no request can take a token from it in between
+            return arrival == EVICTED || arrival - now <= 0 && bucket.compareAndSet(arrival, EVICTED);
+        });
+        return buckets.size();
+    }
+}
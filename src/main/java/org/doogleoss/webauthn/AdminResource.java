@@ -1,17 +1,159 @@
 package org.doogleoss.webauthn;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.doogleoss.dto.CacheStatsResponse;
+import org.doogleoss.dto.PageResponse;
+import org.doogleoss.dto.PasskeyUserResponse;
+import org.doogleoss.dto.ReplicaStatusResponse;
+import org.doogleoss.dto.UserResponse;
+import org.doogleoss.repository.ReadReplica;
+import org.doogleoss.repository.UserRepository;
+import org.doogleoss.service.NdjsonExporter;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
 
 @Path("/api/admin")
 public class AdminResource {
 
+    static final int MAX_PAGE_SIZE = 500;
+    static final String NDJSON = "application/x-ndjson";
+
+    @Inject
+    CredentialCache credentialCache;
+
+    @Inject
+    RoleCache roleCache;
+
+    @Inject
+    RoleService roleService;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    NdjsonExporter ndjsonExporter;
+
+    @Inject
+    ReadReplica readReplica;
+
     @GET
     // @RolesAllowed("admin")
     @Produces(MediaType.TEXT_PLAIN)
     public String adminResource() {
          return "admin";
     }
-}
\ No newline at end of file
+
+    @GET
+    @Path("/caches")
+    @RolesAllowed("admin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<CacheStatsResponse> caches() {
+        List<CacheStatsResponse> stats = new ArrayList<>(credentialCache.stats());
+        stats.add(roleCache.stats());
+        return stats;
+    }
+
+    @GET
+    @Path("/replica")
+    @RolesAllowed("admin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public ReplicaStatusResponse replica() {
+        return new ReplicaStatusResponse(readReplica.isEnabled(), readReplica.isRouting(), readReplica.lagMillis());
+    }
+
+    @GET
+    @Path("/users")
+    @RolesAllowed("admin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public PageResponse<UserResponse> users(@QueryParam("after") @DefaultValue("0") long after,
+                                            @QueryParam("limit") @DefaultValue("50") int limit) {
+        checkLimit(limit);
+        return PageResponse.of(userRepository.findResponsesAfter(after, limit + 1), limit, user -> user.id);
+    }
+
+    @GET
+    @Path("/users/export")
+    @RolesAllowed("admin")
+    @Produces(NDJSON)
+    public StreamingOutput exportUsers() {
+        return out -> ndjsonExporter.export(
+            "select new org.doogleoss.dto.UserResponse(u.id, u.username, u.firstName, u.lastName, u.email, u.createdAt)"
+            + " from LuxeUser u order by u.id", UserResponse.class, out);
+    }
+
+    @GET
+    @Path("/passkey-users")
+    @RolesAllowed("admin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public PageResponse<PasskeyUserResponse> passkeyUsers(@QueryParam("after") @DefaultValue("0") long after,
+                                                          @QueryParam("limit") @DefaultValue("50") int limit) {
+        checkLimit(limit);
+        return PageResponse.of(User.listAfter(after, limit + 1), limit, user -> user.id);
+    }
+
+    @GET
+    @Path("/passkey-users/export")
+    @RolesAllowed("admin")
+    @Produces(NDJSON)
+    public StreamingOutput exportPasskeyUsers() {
+        return out -> ndjsonExporter.export(
+            "select new org.doogleoss.dto.PasskeyUserResponse(u.id, u.username,"
+            + " (select count(c) from WebAuthnCredential c where c.user = u))"
+            + " from User u order by u.id", PasskeyUserResponse.class, out);
+    }
+
+    @GET
+    @Path("/roles/{username}")
+    @RolesAllowed("admin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Set<String> roles(@PathParam("username") String username) {
+        return roleService.rolesOf(username);
+    }
+
+    @PUT
+    @Path("/roles/{username}/{role}")
+    @RolesAllowed("admin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Set<String> grantRole(@PathParam("username") String username, @PathParam("role") String role) {
+        try {
+            roleService.grant(username, role);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return roleService.rolesOf(username);
+    }
+
+    @DELETE
+    @Path("/roles/{username}/{role}")
+    @RolesAllowed("admin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Set<String> revokeRole(@PathParam("username") String username, @PathParam("role") String role) {
+        try {
+            roleService.revoke(username, role);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return roleService.rolesOf(username);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+}
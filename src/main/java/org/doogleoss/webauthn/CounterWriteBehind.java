@@ -0,0 +1,161 @@
+package org.doogleoss.webauthn;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.doogleoss.repository.ReadReplica;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.jboss.logging.Logger;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Optional write-behind buffer for WebAuthn signature counters, enabled with
+ * {@code luxe.webauthn.counter-write-behind.enabled=true}.
+ *
+ * Updates are coalesced per credential keeping the highest counter, and written
+ * as one batched JDBC UPDATE every flush interval, as soon as
+ * {@code max-pending} credentials are waiting, and on shutdown. Providers must
+ * overlay {@link #pendingCounter(String)} on what they read from the database
+ * so clone detection never compares against an older counter.
+ */
+@ApplicationScoped
+public class CounterWriteBehind {
+
+    private static final Logger LOG = Logger.getLogger(CounterWriteBehind.class);
+
+    @ConfigProperty(name = "luxe.webauthn.counter-write-behind.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "luxe.webauthn.counter-write-behind.max-pending", defaultValue = "500")
+    int maxPending;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    ManagedExecutor executor;
+
+    @Inject
+    ReadReplica readReplica;
+
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // At most one flush queued for going over max-pending, however many callers see it
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private volatile String updateSql;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String credentialId, long counter) {
+        pending.merge(credentialId, counter, Math::max);
+        if (pending.size() >= maxPending && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        flush();
+                    } finally {
+                        flushScheduled.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The scheduled flush writes them instead
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * @return the buffered counter of the credential, or {@code -1} when nothing is pending
+     */
+    public long pendingCounter(String credentialId) {
+        Long counter = pending.get(credentialId);
+        return counter == null ? -1 : counter;
+    }
+
+    @Scheduled(every = "${luxe.webauthn.counter-write-behind.flush-interval:1s}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        if (!pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Map.Entry<String, Long>> batch = new ArrayList<>(pending.size());
+            for (Map.Entry<String, Long> entry : pending.entrySet()) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            write(batch);
+            // Only drop what was written: a counter raised during the flush stays for the next one.
+            // Pinned to the primary first, so the counter is never only on a lagging replica
+            for (Map.Entry<String, Long> entry : batch) {
+                readReplica.wrote(entry.getKey());
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+            LOG.debugf("Flushed %d WebAuthn counter updates", batch.size());
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Failed to flush %d WebAuthn counter updates, retrying on next flush", pending.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    void write(List<Map.Entry<String, Long>> batch) {
+        QuarkusTransaction.requiringNew().run(() -> entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(updateSql())) {
+                for (Map.Entry<String, Long> entry : batch) {
+                    statement.setLong(1, entry.getValue());
+                    statement.setString(2, entry.getKey());
+                    statement.setLong(3, entry.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }));
+    }
+
+    private String updateSql() {
+        if (updateSql == null) {
+            // Resolve names from the mapping rather than assuming the physical naming strategy
+            AbstractEntityPersister persister = (AbstractEntityPersister) entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(WebAuthnCredential.class);
+            String counter = persister.getPropertyColumnNames("counter")[0];
+            updateSql = "update " + persister.getTableName()
+                        + " set " + counter + " = ?"
+                        + " where " + persister.getIdentifierColumnNames()[0] + " = ?"
+                        + " and " + counter + " < ?";
+        }
+        return updateSql;
+    }
+}
@@ -0,0 +1,168 @@
+package org.doogleoss.webauthn;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.doogleoss.dto.CacheStatsResponse;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord.RequiredPersistedData;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Bounded, TTL-evicting cache of WebAuthn credentials keyed by credential ID,
+ * plus the credential IDs of each username and whether a username has any passkey.
+ *
+ * Loaders take a {@link #stamp()} before reading the database and hand it
+ * back when caching the result. Every committed {@link CredentialChanged} takes
+ * the next number of a change sequence and records it against its keys first,
+ * so a result is only cached for keys that have not changed since its stamp: a
+ * load that raced with a store or a counter update is dropped instead of caching
+ * a stale signature counter. Loading a user's credentials also caches each of
+ * them by credential ID.
+ */
+@ApplicationScoped
+public class CredentialCache {
+
+    private static final int STAMP_SLOTS = 1024;
+
+    @ConfigProperty(name = "luxe.webauthn.credential-cache.maximum-size", defaultValue = "10000")
+    long maximumSize;
+
+    @ConfigProperty(name = "luxe.webauthn.credential-cache.expire-after-write", defaultValue = "5m")
+    Duration expireAfterWrite;
+
+    @ConfigProperty(name = "luxe.webauthn.presence-cache.expire-after-write", defaultValue = "30s")
+    Duration presenceExpireAfterWrite;
+
+    // Sequence number of the last change of the keys in each slot
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_SLOTS);
+    private final AtomicLong changes = new AtomicLong();
+
+    private Cache<String, RequiredPersistedData> byCredentialId;
+    private Cache<String, List<String>> byUsername;
+    private Cache<String, Boolean> presence;
+
+    @PostConstruct
+    void init() {
+        byCredentialId = Caffeine.newBuilder()
+                                 .maximumSize(maximumSize)
+                                 .expireAfterWrite(expireAfterWrite)
+                                 .recordStats()
+                                 .build();
+        byUsername = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfterWrite(expireAfterWrite)
+                             .recordStats()
+                             .build();
+        presence = Caffeine.newBuilder()
+                           .maximumSize(maximumSize)
+                           .expireAfterWrite(presenceExpireAfterWrite)
+                           .recordStats()
+                           .build();
+    }
+
+    public long stamp() {
+        return changes.get();
+    }
+
+    public RequiredPersistedData getCredential(String credentialId) {
+        return byCredentialId.getIfPresent(credentialId);
+    }
+
+    public void putCredential(long stamp, RequiredPersistedData credential) {
+        byCredentialId.asMap().compute(credential.credentialId(),
+            (id, current) -> unchangedSince(id, stamp) ? credential : current);
+    }
+
+    // Lets benchmarks of the providers measure the database lookup behind the cache
+    void invalidateCredential(String credentialId) {
+        byCredentialId.invalidate(credentialId);
+    }
+
+    /**
+     * @return the cached credentials of the user, or {@code null} unless every one of them is cached
+     */
+    public List<RequiredPersistedData> getCredentialsOf(String username) {
+        List<String> credentialIds = byUsername.getIfPresent(username);
+        if (credentialIds == null) {
+            return null;
+        }
+        List<RequiredPersistedData> credentials = new ArrayList<>(credentialIds.size());
+        for (String credentialId : credentialIds) {
+            RequiredPersistedData credential = byCredentialId.getIfPresent(credentialId);
+            if (credential == null) {
+                return null;
+            }
+            credentials.add(credential);
+        }
+        return credentials;
+    }
+
+    public void putCredentialsOf(String username, long stamp, List<RequiredPersistedData> credentials) {
+        for (RequiredPersistedData credential : credentials) {
+            putCredential(stamp, credential);
+        }
+        List<String> credentialIds = credentials.stream().map(RequiredPersistedData::credentialId).toList();
+        byUsername.asMap().compute(username,
+            (name, current) -> unchangedSince(name, stamp) ? credentialIds : current);
+    }
+
+    /**
+     * @return whether the user has a passkey, or {@code null} when not cached
+     */
+    public Boolean getPresence(String username) {
+        return presence.getIfPresent(username);
+    }
+
+    public void putPresence(String username, long stamp, boolean hasCredentials) {
+        presence.asMap().compute(username,
+            (name, current) -> unchangedSince(name, stamp) ? hasCredentials : current);
+    }
+
+    void onCredentialChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CredentialChanged change) {
+        credentialChanged(change);
+    }
+
+    public void credentialChanged(CredentialChanged change) {
+        long sequence = changes.incrementAndGet();
+        stamps.accumulateAndGet(slot(change.credentialId()), sequence, Math::max);
+        byCredentialId.asMap().computeIfPresent(change.credentialId(),
+            // Events of concurrent sign-ins may arrive out of order: never lower the counter
+            (id, current) -> withCounter(current, Math.max(current.counter(), change.counter())));
+        if (change.username() != null) {
+            stamps.accumulateAndGet(slot(change.username()), sequence, Math::max);
+            byUsername.invalidate(change.username());
+            presence.invalidate(change.username());
+        }
+    }
+
+    public List<CacheStatsResponse> stats() {
+        return List.of(CacheStatsResponse.of("webauthn-credentials-by-id", byCredentialId),
+                       CacheStatsResponse.of("webauthn-credentials-by-username", byUsername),
+                       CacheStatsResponse.of("webauthn-presence", presence));
+    }
+
+    static RequiredPersistedData withCounter(RequiredPersistedData credential, long counter) {
+        return new RequiredPersistedData(credential.username(), credential.credentialId(),
+                                         credential.aaguid(), credential.publicKey(),
+                                         credential.publicKeyAlgorithm(), counter);
+    }
+
+    private boolean unchangedSince(String key, long stamp) {
+        return stamps.get(slot(key)) <= stamp;
+    }
+
+    private static int slot(String key) {
+        return key.hashCode() & (STAMP_SLOTS - 1);
+    }
+}
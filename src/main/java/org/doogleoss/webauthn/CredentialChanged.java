@@ -0,0 +1,13 @@
+package org.doogleoss.webauthn;
+
+/**
+ * Fired by the WebAuthn providers when a credential is stored or its signature
+ * counter changes. Observers that keep derived state should use
+ * {@code TransactionPhase.AFTER_SUCCESS} so they only see committed changes.
+ *
+ * @param username the owner of the credential, {@code null} when not known
+ * @param credentialId the stored or updated credential
+ * @param counter the new signature counter
+ */
+public record CredentialChanged(String username, String credentialId, long counter) {
+}
@@ -0,0 +1,53 @@
+package org.doogleoss.webauthn;
+
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Credentials used to be a one-to-one of their user, which left a unique
+ * constraint on the user column that schema updates never drop. Without this,
+ * a second device of the same user would still fail.
+ */
+@ApplicationScoped
+public class CredentialSchemaMigration {
+
+    private static final Logger LOG = Logger.getLogger(CredentialSchemaMigration.class);
+
+    @Inject
+    EntityManager entityManager;
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        AbstractEntityPersister persister = (AbstractEntityPersister) entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel()
+            .getEntityDescriptor(WebAuthnCredential.class);
+        @SuppressWarnings("unchecked")
+        List<String> constraints = entityManager.createNativeQuery("""
+                select con.conname from pg_constraint con
+                join pg_class rel on rel.oid = con.conrelid
+                join pg_attribute att on att.attrelid = rel.oid and att.attnum = con.conkey[1]
+                where con.contype = 'u' and cardinality(con.conkey) = 1
+                and rel.relname = lower(?1) and att.attname = lower(?2)
+                """)
+            .setParameter(1, persister.getTableName())
+            .setParameter(2, persister.getPropertyColumnNames("user")[0])
+            .getResultList();
+        for (String constraint : constraints) {
+            entityManager.createNativeQuery("alter table " + persister.getTableName()
+                                            + " drop constraint \"" + constraint + "\"")
+                         .executeUpdate();
+            LOG.infof("Dropped one-credential-per-user constraint %s", constraint);
+        }
+    }
+}
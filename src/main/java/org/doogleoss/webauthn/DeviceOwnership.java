@@ -0,0 +1,29 @@
+package org.doogleoss.webauthn;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.security.identity.CurrentIdentityAssociation;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Registering a passkey under an existing username adds a device to that
+ * user, which only the user, signed in, may do. Anything else is refused
+ * exactly like the second registration used to fail on the username constraint.
+ */
+@ApplicationScoped
+public class DeviceOwnership {
+
+    @Inject
+    CurrentIdentityAssociation identityAssociation;
+
+    public Uni<Boolean> isSignedInAs(String username) {
+        if (!Arc.container().requestContext().isActive()) {
+            return Uni.createFrom().item(false);
+        }
+        return identityAssociation.getDeferredIdentity()
+                                  .map(identity -> !identity.isAnonymous()
+                                                   && identity.getPrincipal().getName().equals(username))
+                                  .onFailure().recoverWithItem(false);
+    }
+}
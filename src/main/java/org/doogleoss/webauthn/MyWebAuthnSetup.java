@@ -1,67 +1,162 @@
 package org.doogleoss.webauthn;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
+import org.doogleoss.metrics.Measured;
+import org.doogleoss.repository.UserRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.security.webauthn.WebAuthnCredentialRecord;
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord.RequiredPersistedData;
 import io.quarkus.security.webauthn.WebAuthnUserProvider;
+import io.quarkus.virtual.threads.VirtualThreads;
 import io.smallrye.common.annotation.Blocking;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.transaction.Transactional;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 
+@Measured("luxe.webauthn.provider")
 @Blocking
+@UnlessBuildProperty(name = "luxe.webauthn.provider", stringValue = "reactive", enableIfMissing = true)
 @ApplicationScoped
 public class MyWebAuthnSetup implements WebAuthnUserProvider {
 
-    @Transactional
+    @Inject
+    CredentialCache credentialCache;
+
+    @Inject
+    CounterWriteBehind counterWriteBehind;
+
+    @Inject
+    DeviceOwnership deviceOwnership;
+
+    @Inject
+    RoleCache roleCache;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    Event<CredentialChanged> credentialChanged;
+
+    @Inject
+    @VirtualThreads
+    ExecutorService virtualThreads;
+
+    @ConfigProperty(name = "quarkus.virtual-threads.enabled")
+    boolean virtualThreadsEnabled;
+
     @Override
     public Uni<List<WebAuthnCredentialRecord>> findByUsername(String userId) {
-        return Uni.createFrom().item(
-            WebAuthnCredential.findByUsername(userId)
-                              .stream()
-                              .map(WebAuthnCredential::toWebAuthnCredentialRecord)
-                              .toList());
+        return blocking(() -> {
+            List<RequiredPersistedData> credentials = credentialCache.getCredentialsOf(userId);
+            if(credentials == null) {
+                long stamp = credentialCache.stamp();
+                credentials = WebAuthnCredential.findByUsername(userId)
+                                                .stream()
+                                                .map(WebAuthnCredential::toRequiredPersistedData)
+                                                .map(this::withPendingCounter)
+                                                .toList();
+                credentialCache.putCredentialsOf(userId, stamp, credentials);
+            }
+            return credentials.stream()
+                              .map(WebAuthnCredentialRecord::fromRequiredPersistedData)
+                              .toList();
+        });
     }
 
-    @Transactional
     @Override
     public Uni<WebAuthnCredentialRecord> findByCredentialId(String credId) {
-        WebAuthnCredential creds = WebAuthnCredential.findByCredentialId(credId);
-        if(creds == null)
-            return Uni.createFrom()
-                      .failure(new RuntimeException("No such credential ID"));
-        return Uni.createFrom().item(creds.toWebAuthnCredentialRecord());
+        RequiredPersistedData cached = credentialCache.getCredential(credId);
+        if(cached != null)
+            return Uni.createFrom().item(WebAuthnCredentialRecord.fromRequiredPersistedData(cached));
+        return blocking(() -> {
+            long stamp = credentialCache.stamp();
+            WebAuthnCredential creds = WebAuthnCredential.findByCredentialId(credId);
+            if(creds == null)
+                throw new RuntimeException("No such credential ID");
+            RequiredPersistedData credential = withPendingCounter(creds.toRequiredPersistedData());
+            credentialCache.putCredential(stamp, credential);
+            return WebAuthnCredentialRecord.fromRequiredPersistedData(credential);
+        });
     }
 
-    @Transactional
     @Override
     public Uni<Void> store(WebAuthnCredentialRecord credentialRecord) {
-        User newUser = new User();
-        // We can only store one credential per username thanks to the unicity constraint
-        // which will cause this transaction to fail and throw if the username already exists
-        newUser.username = credentialRecord.getUsername();
-        WebAuthnCredential credential = new WebAuthnCredential(credentialRecord, newUser);
-        credential.persist();
-        newUser.persist();
-        return Uni.createFrom().voidItem();
+        String username = credentialRecord.getUsername();
+        // Resolved here, where the request and its identity are current
+        boolean signedIn = deviceOwnership.isSignedInAs(username).await().indefinitely();
+        return blocking(() -> QuarkusTransaction.joiningExisting().call(() -> {
+            User user = User.findByUsername(username);
+            if(user == null) {
+                // A concurrent first registration of the same username still fails on its unicity constraint
+                user = new User();
+                user.username = username;
+                user.profile = userRepository.findByUsername(username);
+                user.persist();
+            } else if(!signedIn) {
+                throw new IllegalArgumentException("Username already registered");
+            }
+            // Another device of an existing user is a plain insert
+            WebAuthnCredential credential = new WebAuthnCredential(credentialRecord, user);
+            credential.persist();
+            credentialChanged.fire(new CredentialChanged(username, credential.credentialId, credential.counter));
+            return null;
+        }));
     }
 
-    @Transactional
     @Override
     public Uni<Void> update(String credentialId, long counter) {
-        WebAuthnCredential credential =
-            WebAuthnCredential.findByCredentialId(credentialId);
-        credential.counter = counter;
-        return Uni.createFrom().voidItem();
+        if(counterWriteBehind.isEnabled()) {
+            // No transaction on the login path: the counter is flushed in a later batch
+            counterWriteBehind.record(credentialId, counter);
+            credentialChanged.fire(new CredentialChanged(null, credentialId, counter));
+            return Uni.createFrom().voidItem();
+        }
+        return blocking(() -> QuarkusTransaction.joiningExisting().call(() -> {
+            // No need for the fetch-joined user here
+            WebAuthnCredential credential = WebAuthnCredential.findById(credentialId);
+            credential.counter = counter;
+            credentialChanged.fire(new CredentialChanged(null, credentialId, counter));
+            return null;
+        }));
     }
 
     @Override
     public Set<String> getRoles(String userId) {
-        if(userId.equals("admin")) {
-            return Set.of("user", "admin");
+        Set<String> roles = roleCache.get(userId);
+        if(roles == null) {
+            long stamp = roleCache.stamp(userId);
+            roles = QuarkusTransaction.joiningExisting().call(() -> UserRole.rolesOf(userId));
+            roleCache.put(userId, stamp, roles);
+        }
+        return roles;
+    }
+
+    /**
+     * Runs JDBC work here, on the worker thread {@code @Blocking} put us on, or
+     * on a virtual thread when {@code quarkus.virtual-threads.enabled} is set, so
+     * the worker is only held to hand it over
+     */
+    private <T> Uni<T> blocking(Supplier<T> work) {
+        if(virtualThreadsEnabled) {
+            return Uni.createFrom().item(work).runSubscriptionOn(virtualThreads);
+        }
+        try {
+            return Uni.createFrom().item(work.get());
+        } catch(RuntimeException e) {
+            return Uni.createFrom().failure(e);
         }
-        return Collections.singleton("user");
+    }
+
+    private RequiredPersistedData withPendingCounter(RequiredPersistedData credential) {
+        long pending = counterWriteBehind.pendingCounter(credential.credentialId());
+        return pending > credential.counter() ? CredentialCache.withCounter(credential, pending) : credential;
     }
 }
@@ -0,0 +1,56 @@
+package org.doogleoss.webauthn;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Answers "does this user have a passkey?" from the {@link CredentialCache},
+ * falling back to an EXISTS-style query that never loads credential entities.
+ */
+@ApplicationScoped
+public class PasskeyPresence {
+
+    @Inject
+    CredentialCache credentialCache;
+
+    public boolean hasPasskey(String username) {
+        Boolean cached = credentialCache.getPresence(username);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = credentialCache.stamp();
+        boolean exists = WebAuthnCredential.existsByUsername(username);
+        credentialCache.putPresence(username, stamp, exists);
+        return exists;
+    }
+
+    public Map<String, Boolean> hasPasskeys(Collection<String> usernames) {
+        Map<String, Boolean> answers = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String username : usernames) {
+            Boolean cached = credentialCache.getPresence(username);
+            if (cached != null) {
+                answers.put(username, cached);
+            } else {
+                missing.add(username);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = credentialCache.stamp();
+            Set<String> withCredentials = new HashSet<>(WebAuthnCredential.findUsernamesWithCredentials(missing));
+            for (String username : missing) {
+                boolean exists = withCredentials.contains(username);
+                credentialCache.putPresence(username, stamp, exists);
+                answers.put(username, exists);
+            }
+        }
+        return answers;
+    }
+}
@@ -0,0 +1,45 @@
+package org.doogleoss.webauthn;
+
+import java.util.Set;
+
+import org.jboss.logging.Logger;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Adds the roles of a user whose identity was built on the event loop before
+ * they were cached. {@link ReactiveWebAuthnSetup#getRoles} cannot wait for the
+ * query there and leaves them empty; this loads them without blocking, so the
+ * first request of a session is authorized with the user's actual roles.
+ */
+@IfBuildProperty(name = "luxe.webauthn.provider", stringValue = "reactive")
+@ApplicationScoped
+public class ReactiveRoleAugmentor implements SecurityIdentityAugmentor {
+
+    private static final Logger LOG = Logger.getLogger(ReactiveRoleAugmentor.class);
+
+    @Inject
+    ReactiveWebAuthnSetup provider;
+
+    @Override
+    public Uni<SecurityIdentity> augment(SecurityIdentity identity, AuthenticationRequestContext context) {
+        // Every identity of the provider has at least the default role
+        if(identity.isAnonymous() || !identity.getRoles().isEmpty()) {
+            return Uni.createFrom().item(identity);
+        }
+        String username = identity.getPrincipal().getName();
+        return provider.loadRoles(username)
+            .onFailure().recoverWithItem(failure -> {
+                LOG.warnf(failure, "Failed to load the roles of %s", username);
+                return Set.of(UserRole.DEFAULT_ROLE);
+            })
+            .map(roles -> QuarkusSecurityIdentity.builder(identity).addRoles(roles).build());
+    }
+}
@@ -0,0 +1,176 @@
+package org.doogleoss.webauthn;
+
+import java.util.List;
+import java.util.Set;
+
+import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.metrics.Measured;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord;
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord.RequiredPersistedData;
+import io.quarkus.security.webauthn.WebAuthnUserProvider;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Non-blocking variant of {@link MyWebAuthnSetup}, enabled with
+ * {@code luxe.webauthn.provider=reactive}. It maps the same entities through
+ * Hibernate Reactive, so every call stays on the Vert.x event loop instead of
+ * holding a worker thread and a JDBC connection.
+ */
+@Measured("luxe.webauthn.provider")
+@IfBuildProperty(name = "luxe.webauthn.provider", stringValue = "reactive")
+@ApplicationScoped
+public class ReactiveWebAuthnSetup implements WebAuthnUserProvider {
+
+    @Inject
+    Mutiny.SessionFactory sessionFactory;
+
+    @Inject
+    CredentialCache credentialCache;
+
+    @Inject
+    CounterWriteBehind counterWriteBehind;
+
+    @Inject
+    DeviceOwnership deviceOwnership;
+
+    @Inject
+    RoleCache roleCache;
+
+    @Override
+    public Uni<List<WebAuthnCredentialRecord>> findByUsername(String userId) {
+        List<RequiredPersistedData> cached = credentialCache.getCredentialsOf(userId);
+        if(cached != null) {
+            return Uni.createFrom().item(toRecords(cached));
+        }
+        long stamp = credentialCache.stamp();
+        return sessionFactory.withSession(session -> session
+                .createSelectionQuery("from WebAuthnCredential c join fetch c.user u where u.username = :username",
+                                      WebAuthnCredential.class)
+                .setParameter("username", userId)
+                .getResultList())
+            .map(credentials -> credentials.stream()
+                                           .map(WebAuthnCredential::toRequiredPersistedData)
+                                           .map(this::withPendingCounter)
+                                           .toList())
+            .invoke(credentials -> credentialCache.putCredentialsOf(userId, stamp, credentials))
+            .map(ReactiveWebAuthnSetup::toRecords);
+    }
+
+    @Override
+    public Uni<WebAuthnCredentialRecord> findByCredentialId(String credId) {
+        RequiredPersistedData cached = credentialCache.getCredential(credId);
+        if(cached != null) {
+            return prefetchRoles(cached.username())
+                .replaceWith(() -> WebAuthnCredentialRecord.fromRequiredPersistedData(cached));
+        }
+        long stamp = credentialCache.stamp();
+        return sessionFactory.withSession(session -> session
+                .createSelectionQuery("from WebAuthnCredential c join fetch c.user where c.credentialId = :credentialId",
+                                      WebAuthnCredential.class)
+                .setParameter("credentialId", credId)
+                .getSingleResultOrNull())
+            .onItem().ifNull().failWith(() -> new RuntimeException("No such credential ID"))
+            .map(WebAuthnCredential::toRequiredPersistedData)
+            .map(this::withPendingCounter)
+            .invoke(credential -> credentialCache.putCredential(stamp, credential))
+            .call(credential -> prefetchRoles(credential.username()))
+            .map(WebAuthnCredentialRecord::fromRequiredPersistedData);
+    }
+
+    @Override
+    public Uni<Void> store(WebAuthnCredentialRecord credentialRecord) {
+        String username = credentialRecord.getUsername();
+        // Same rules as the blocking provider: a new username creates the user, an existing
+        // one only gets another device when that user is signed in
+        return deviceOwnership.isSignedInAs(username)
+            .chain(signedIn -> sessionFactory.withTransaction(session -> session
+                .createSelectionQuery("from User where username = :username", User.class)
+                .setParameter("username", username)
+                .getSingleResultOrNull()
+                .chain(existing -> {
+                    if(existing == null) {
+                        return session
+                            .createSelectionQuery("from LuxeUser where username = :username", LuxeUser.class)
+                            .setParameter("username", username)
+                            .getSingleResultOrNull()
+                            .chain(profile -> {
+                                User newUser = new User();
+                                newUser.username = username;
+                                newUser.profile = profile;
+                                return session.persistAll(newUser, new WebAuthnCredential(credentialRecord, newUser));
+                            });
+                    }
+                    if(!signedIn) {
+                        return Uni.createFrom().failure(new IllegalArgumentException("Username already registered"));
+                    }
+                    return session.persist(new WebAuthnCredential(credentialRecord, existing));
+                })))
+            // withTransaction completes after the commit, so the cache only sees committed rows
+            .invoke(() -> credentialCache.credentialChanged(
+                new CredentialChanged(username, credentialRecord.getCredentialID(), credentialRecord.getCounter())));
+    }
+
+    @Override
+    public Uni<Void> update(String credentialId, long counter) {
+        if(counterWriteBehind.isEnabled()) {
+            counterWriteBehind.record(credentialId, counter);
+            credentialCache.credentialChanged(new CredentialChanged(null, credentialId, counter));
+            return Uni.createFrom().voidItem();
+        }
+        // A single UPDATE statement, no need to load and dirty the entity
+        return sessionFactory.withTransaction(session -> session
+                .createMutationQuery("update WebAuthnCredential set counter = :counter where credentialId = :credentialId")
+                .setParameter("counter", counter)
+                .setParameter("credentialId", credentialId)
+                .executeUpdate())
+            .invoke(() -> credentialCache.credentialChanged(new CredentialChanged(null, credentialId, counter)))
+            .replaceWithVoid();
+    }
+
+    @Override
+    public Set<String> getRoles(String userId) {
+        Set<String> roles = roleCache.get(userId);
+        if(roles != null) {
+            return roles;
+        }
+        if(Context.isOnEventLoopThread()) {
+            // Cannot wait for the query here: ReactiveRoleAugmentor loads them into the identity without blocking
+            return Set.of();
+        }
+        return loadRoles(userId).await().indefinitely();
+    }
+
+    Uni<Set<String>> loadRoles(String userId) {
+        long stamp = roleCache.stamp(userId);
+        return sessionFactory.withSession(session -> session
+                .createSelectionQuery("select r.role from UserRole r where r.username = :username", String.class)
+                .setParameter("username", userId)
+                .getResultList())
+            .map(UserRole::withDefault)
+            .invoke(roles -> roleCache.put(userId, stamp, roles));
+    }
+
+    /**
+     * Caches the roles of a user logging in, before the identity asks for them
+     */
+    private Uni<Void> prefetchRoles(String userId) {
+        return roleCache.get(userId) != null ? Uni.createFrom().voidItem() : loadRoles(userId).replaceWithVoid();
+    }
+
+    private RequiredPersistedData withPendingCounter(RequiredPersistedData credential) {
+        long pending = counterWriteBehind.pendingCounter(credential.credentialId());
+        return pending > credential.counter() ? CredentialCache.withCounter(credential, pending) : credential;
+    }
+
+    private static List<WebAuthnCredentialRecord> toRecords(List<RequiredPersistedData> credentials) {
+        return credentials.stream()
+                          .map(WebAuthnCredentialRecord::fromRequiredPersistedData)
+                          .toList();
+    }
+}
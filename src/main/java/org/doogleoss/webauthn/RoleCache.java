@@ -0,0 +1,79 @@
+package org.doogleoss.webauthn;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.doogleoss.dto.CacheStatsResponse;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Bounded cache of the roles of each username, read by
+ * {@code WebAuthnUserProvider.getRoles} whenever a security identity is
+ * built, so an authenticated request does not query {@code user_role}.
+ *
+ * Users without granted roles are cached too. A committed
+ * {@link RolesChanged} evicts the user and bumps its stamp, with the same
+ * stamp protocol as {@link CredentialCache}; expire-after-write only bounds
+ * how long a change made by another instance can go unseen.
+ */
+@ApplicationScoped
+public class RoleCache {
+
+    private static final int STAMP_SLOTS = 1024;
+
+    @ConfigProperty(name = "luxe.webauthn.role-cache.maximum-size", defaultValue = "100000")
+    long maximumSize;
+
+    @ConfigProperty(name = "luxe.webauthn.role-cache.expire-after-write", defaultValue = "5m")
+    Duration expireAfterWrite;
+
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_SLOTS);
+
+    private Cache<String, Set<String>> roles;
+
+    @PostConstruct
+    void init() {
+        roles = Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(expireAfterWrite)
+                        .recordStats()
+                        .build();
+    }
+
+    public long stamp(String username) {
+        return stamps.get(slot(username));
+    }
+
+    /**
+     * @return the roles of the user, or {@code null} when not cached
+     */
+    public Set<String> get(String username) {
+        return roles.getIfPresent(username);
+    }
+
+    public void put(String username, long stamp, Set<String> userRoles) {
+        roles.asMap().compute(username, (name, current) -> stamp(name) == stamp ? userRoles : current);
+    }
+
+    void onRolesChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) RolesChanged change) {
+        stamps.incrementAndGet(slot(change.username()));
+        roles.invalidate(change.username());
+    }
+
+    public CacheStatsResponse stats() {
+        return CacheStatsResponse.of("webauthn-roles", roles);
+    }
+
+    private static int slot(String key) {
+        return key.hashCode() & (STAMP_SLOTS - 1);
+    }
+}
@@ -0,0 +1,87 @@
+package org.doogleoss.webauthn;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Grants and revokes the roles stored in {@code user_role}. Every change
+ * fires {@link RolesChanged}, which evicts the user from {@link RoleCache}
+ * once the transaction commits.
+ */
+@ApplicationScoped
+public class RoleService {
+
+    private static final Logger LOG = Logger.getLogger(RoleService.class);
+    private static final Pattern ROLE = Pattern.compile("[a-z][a-z0-9-]{0,31}");
+
+    @ConfigProperty(name = "luxe.roles.bootstrap-admins")
+    Optional<List<String>> bootstrapAdmins;
+
+    @Inject
+    Event<RolesChanged> rolesChanged;
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        for (String username : bootstrapAdmins.orElse(List.of())) {
+            if (grant(username, "admin")) {
+                LOG.infof("Granted admin to %s", username);
+            }
+        }
+    }
+
+    @Transactional
+    public Set<String> rolesOf(String username) {
+        return UserRole.rolesOf(username);
+    }
+
+    /**
+     * @return whether the user did not have the role yet
+     */
+    @Transactional
+    public boolean grant(String username, String role) {
+        check(username, role);
+        if (UserRole.findById(new UserRole.Key(username, role)) != null) {
+            return false;
+        }
+        new UserRole(username, role).persist();
+        rolesChanged.fire(new RolesChanged(username));
+        return true;
+    }
+
+    /**
+     * @return whether the user had the role
+     */
+    @Transactional
+    public boolean revoke(String username, String role) {
+        check(username, role);
+        if (!UserRole.deleteById(new UserRole.Key(username, role))) {
+            return false;
+        }
+        rolesChanged.fire(new RolesChanged(username));
+        return true;
+    }
+
+    private static void check(String username, String role) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username is required");
+        }
+        if (role == null || !ROLE.matcher(role).matches()) {
+            throw new IllegalArgumentException("Role must be lowercase letters, digits or '-', up to 32 characters");
+        }
+        if (role.equals(UserRole.DEFAULT_ROLE)) {
+            throw new IllegalArgumentException("Every user has the '" + UserRole.DEFAULT_ROLE + "' role");
+        }
+    }
+}
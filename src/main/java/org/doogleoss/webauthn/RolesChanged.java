@@ -0,0 +1,11 @@
+package org.doogleoss.webauthn;
+
+/**
+ * Fired when a role is granted to or revoked from a user. Observers that
+ * keep derived state should use {@code TransactionPhase.AFTER_SUCCESS}, like
+ * for {@link CredentialChanged}.
+ *
+ * @param username the user whose roles changed
+ */
+public record RolesChanged(String username) {
+}
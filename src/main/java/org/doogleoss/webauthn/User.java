@@ -1,8 +1,17 @@
 package org.doogleoss.webauthn;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.doogleoss.dto.PasskeyUserResponse;
+import org.doogleoss.entity.LuxeUser;
+
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 
@@ -13,11 +22,29 @@ public class User extends PanacheEntity {
     @Column(unique = true)
     public String username;
 
-    // non-owning side, so we can add more credentials later
-    @OneToOne(mappedBy = "user")
-    public WebAuthnCredential webAuthnCredential;
+    // non-owning side: one user can register several devices
+    @OneToMany(mappedBy = "user")
+    public List<WebAuthnCredential> webAuthnCredentials = new ArrayList<>();
+
+    // The profile of this identity; null for passkey-only users and rows not yet backfilled
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profile_id", unique = true)
+    public LuxeUser profile;
 
     public static User findByUsername(String username) {
         return User.find("username", username).firstResult();
     }
+
+    /**
+     * Keyset page of users in id order, with how many credentials each one owns
+     */
+    public static List<PasskeyUserResponse> listAfter(long afterId, int limit) {
+        return getEntityManager()
+            .createQuery("select new org.doogleoss.dto.PasskeyUserResponse(u.id, u.username,"
+                         + " (select count(c) from WebAuthnCredential c where c.user = u))"
+                         + " from User u where u.id > ?1 order by u.id", PasskeyUserResponse.class)
+            .setParameter(1, afterId)
+            .setMaxResults(limit)
+            .getResultList();
+    }
 }
@@ -1,6 +1,14 @@
 package org.doogleoss.webauthn;
 
+import java.util.List;
+import java.util.Map;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
@@ -9,8 +17,14 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.SecurityContext;
 
 @Path("/api/users")
+@RunOnVirtualThread
 public class UserResource {
 
+    static final int MAX_BATCH_SIZE = 100;
+
+    @Inject
+    PasskeyPresence passkeyPresence;
+
     @GET
     // @RolesAllowed("user")
     @Path("/me")
@@ -22,6 +36,17 @@ public class UserResource {
     @Path("/{username}/webauthn/credentials")
     @Produces(MediaType.APPLICATION_JSON)
     public boolean passkeyExists(@PathParam("username") String username) {
-        return !WebAuthnCredential.findByUsername(username).isEmpty();
+        return passkeyPresence.hasPasskey(username);
+    }
+
+    @POST
+    @Path("/webauthn/credentials/exists")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Boolean> passkeysExist(List<String> usernames) {
+        if (usernames == null || usernames.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Expected a list of at most " + MAX_BATCH_SIZE + " usernames");
+        }
+        return passkeyPresence.hasPasskeys(usernames);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package org.doogleoss.webauthn;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * A role granted to a passkey username on top of {@link #DEFAULT_ROLE},
+ * which every user has without a row. The primary key starts with the
+ * username, so the roles of a user are one index range.
+ */
+@Entity
+@Table(name = "user_role")
+@IdClass(UserRole.Key.class)
+public class UserRole extends PanacheEntityBase {
+
+    public static final String DEFAULT_ROLE = "user";
+
+    @Id
+    @Column(length = 255)
+    public String username;
+
+    @Id
+    @Column(length = 32)
+    public String role;
+
+    public UserRole() {
+    }
+
+    public UserRole(String username, String role) {
+        this.username = username;
+        this.role = role;
+    }
+
+    public static Set<String> rolesOf(String username) {
+        return withDefault(getEntityManager()
+            .createQuery("select r.role from UserRole r where r.username = ?1", String.class)
+            .setParameter(1, username)
+            .getResultList());
+    }
+
+    static Set<String> withDefault(Collection<String> granted) {
+        Set<String> roles = new HashSet<>(granted);
+        roles.add(DEFAULT_ROLE);
+        return Set.copyOf(roles);
+    }
+
+    public static class Key implements Serializable {
+        public String username;
+        public String role;
+
+        public Key() {
+        }
+
+        public Key(String username, String role) {
+            this.username = username;
+            this.role = role;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(username, key.username) && Objects.equals(role, key.role);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, role);
+        }
+    }
+}
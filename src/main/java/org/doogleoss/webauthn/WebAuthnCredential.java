@@ -1,16 +1,25 @@
 package org.doogleoss.webauthn;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.doogleoss.repository.ReadReplica;
+
+import io.quarkus.arc.Arc;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import io.quarkus.security.webauthn.WebAuthnCredentialRecord;
 import io.quarkus.security.webauthn.WebAuthnCredentialRecord.RequiredPersistedData;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = @Index(name = "webauthncredential_user_id_idx", columnList = "user_id"))
 public class WebAuthnCredential extends PanacheEntityBase {
 
 	@Id
@@ -21,8 +30,9 @@ public class WebAuthnCredential extends PanacheEntityBase {
     public long counter;
     public UUID aaguid;
 
-    // this is the owning side
-    @OneToOne
+    // this is the owning side; lookups fetch-join it
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id")
     public User user;
 
     public WebAuthnCredential() {
@@ -37,22 +47,61 @@ public class WebAuthnCredential extends PanacheEntityBase {
         publicKey = requiredPersistedData.publicKey();
         publicKeyAlgorithm = requiredPersistedData.publicKeyAlgorithm();
         this.user = user;
-        user.webAuthnCredential = this;
+        user.webAuthnCredentials.add(this);
     }
 
     public WebAuthnCredentialRecord toWebAuthnCredentialRecord() {
         return WebAuthnCredentialRecord
-                .fromRequiredPersistedData(
-                        new RequiredPersistedData(user.username, credentialId,
-                                                  aaguid, publicKey,
-                                                  publicKeyAlgorithm, counter));
+                .fromRequiredPersistedData(toRequiredPersistedData());
+    }
+
+    public RequiredPersistedData toRequiredPersistedData() {
+        return new RequiredPersistedData(user.username, credentialId,
+                                         aaguid, publicKey,
+                                         publicKeyAlgorithm, counter);
     }
 
+    // Lookups go to the read replica when ReadReplica allows it; what they return is not managed there
+
     public static List<WebAuthnCredential> findByUsername(String username) {
-        return list("user.username", username);
+        return readReplica().read(username, em -> em
+            .createQuery("from WebAuthnCredential c join fetch c.user u where u.username = ?1",
+                         WebAuthnCredential.class)
+            .setParameter(1, username)
+            .getResultList());
     }
 
     public static WebAuthnCredential findByCredentialId(String credentialId) {
-        return findById(credentialId);
+        return readReplica().read(credentialId, em -> em
+            .createQuery("from WebAuthnCredential c join fetch c.user where c.credentialId = ?1",
+                         WebAuthnCredential.class)
+            .setParameter(1, credentialId)
+            .getResultStream()
+            .findFirst()
+            .orElse(null));
+    }
+
+    public static boolean existsByUsername(String username) {
+        return !readReplica().read(username, em -> em
+            .createQuery("select 1 from WebAuthnCredential c where c.user.username = ?1", Integer.class)
+            .setParameter(1, username)
+            .setMaxResults(1)
+            .getResultList())
+            .isEmpty();
+    }
+
+    /**
+     * @return the subset of the given usernames that own at least one credential
+     */
+    public static List<String> findUsernamesWithCredentials(Collection<String> usernames) {
+        return readReplica().read(usernames, em -> em
+            .createQuery("select distinct c.user.username from WebAuthnCredential c where c.user.username in ?1",
+                         String.class)
+            .setParameter(1, usernames)
+            .getResultList());
+    }
+
+    private static ReadReplica readReplica() {
+        return Arc.container().instance(ReadReplica.class).get();
     }
 }
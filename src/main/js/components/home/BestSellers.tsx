@@ -1,13 +1,18 @@
+import { useEffect, useState } from 'react';
 import { Link } from 'react-router-dom';
 import { ArrowRight, Star, TrendingUp } from 'lucide-react';
 import { Button } from '@/components/ui/button';
-import { getBestSellers } from '@/data/products';
+import { getBestSellers, type Product } from '@/data/products';
 import { useCart } from '@/context/CartContext';
 
 const BestSellers = () => {
-  const bestSellers = getBestSellers();
+  const [bestSellers, setBestSellers] = useState<Product[]>([]);
   const { addToCart, openCart } = useCart();
 
+  useEffect(() => {
+    getBestSellers().then(setBestSellers).catch(console.error);
+  }, []);
+
   const formatPrice = (price: number) => {
     return new Intl.NumberFormat('en-IN', {
       style: 'currency',
@@ -1,11 +1,16 @@
+import { useEffect, useState } from 'react';
 import { Link } from 'react-router-dom';
 import { ArrowRight } from 'lucide-react';
 import { Button } from '@/components/ui/button';
 import ProductCard from '@/components/product/ProductCard';
-import { getFeaturedProducts } from '@/data/products';
+import { getFeaturedProducts, type Product } from '@/data/products';
 
 const FeaturedProducts = () => {
-  const featuredProducts = getFeaturedProducts();
+  const [featuredProducts, setFeaturedProducts] = useState<Product[]>([]);
+
+  useEffect(() => {
+    getFeaturedProducts().then(setFeaturedProducts).catch(console.error);
+  }, []);
 
   return (
     <section className="py-16 lg:py-24">
@@ -1,4 +1,4 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
 import { ShoppingBag, User, Search, Menu, X, Heart, LogOut, Settings } from 'lucide-react';
 import { Button } from '@/components/ui/button';
@@ -12,12 +12,16 @@ import {
   DropdownMenuSeparator,
   DropdownMenuTrigger,
 } from '@/components/ui/dropdown-menu';
+import { autocomplete, searchProducts, type SearchHit } from '@/data/products';
 import { cn } from '@/lib/utils';
 
 const Header = () => {
   const [isMenuOpen, setIsMenuOpen] = useState(false);
   const [isSearchOpen, setIsSearchOpen] = useState(false);
   const [showProfileModal, setShowProfileModal] = useState(false);
+  const [searchQuery, setSearchQuery] = useState('');
+  const [suggestions, setSuggestions] = useState<string[]>([]);
+  const [searchResults, setSearchResults] = useState<SearchHit[]>([]);
   const { cartCount, toggleCart } = useCart();
   const { user, logout, isAuthenticated } = useAuth();
   const navigate = useNavigate();
@@ -36,6 +40,41 @@ const Header = () => {
     return location.pathname.startsWith(href);
   };
 
+  useEffect(() => {
+    if (!searchQuery.trim()) {
+      setSuggestions([]);
+      setSearchResults([]);
+      return;
+    }
+    // Wait for a pause in typing, and drop answers to queries typed over since
+    let current = true;
+    const timer = setTimeout(() => {
+      Promise.all([autocomplete(searchQuery), searchProducts(searchQuery, 5)])
+        .then(([words, hits]) => {
+          if (current) {
+            setSuggestions(words);
+            setSearchResults(hits);
+          }
+        })
+        .catch(console.error);
+    }, 150);
+    return () => {
+      current = false;
+      clearTimeout(timer);
+    };
+  }, [searchQuery]);
+
+  const completeSearch = (word: string) => {
+    const words = searchQuery.trimEnd().split(/\s+/);
+    words[words.length - 1] = word;
+    setSearchQuery(words.join(' ') + ' ');
+  };
+
+  const closeSearch = () => {
+    setIsSearchOpen(false);
+    setSearchQuery('');
+  };
+
   const handleLogout = async () => {
     await logout();
     navigate('/auth');
@@ -204,8 +243,42 @@ const Header = () => {
                 type="text"
                 placeholder="Search for perfumes, chocolates..."
                 className="w-full pl-12 pr-4 py-3 bg-secondary rounded-lg text-foreground placeholder:text-muted-foreground focus:outline-none focus:ring-2 focus:ring-gold"
+                value={searchQuery}
+                onChange={e => setSearchQuery(e.target.value)}
+                onKeyDown={e => e.key === 'Escape' && closeSearch()}
                 autoFocus
               />
+              {(suggestions.length > 0 || searchResults.length > 0) && (
+                <div className="absolute left-0 right-0 mt-2 bg-background border border-border rounded-lg shadow-lg p-3 space-y-3">
+                  {suggestions.length > 0 && (
+                    <div className="flex flex-wrap gap-2">
+                      {suggestions.map(word => (
+                        <button
+                          key={word}
+                          onClick={() => completeSearch(word)}
+                          className="px-3 py-1 rounded-full bg-secondary text-sm hover:bg-gold hover:text-primary-foreground transition-colors"
+                        >
+                          {word}
+                        </button>
+                      ))}
+                    </div>
+                  )}
+                  {searchResults.map(({ product }) => (
+                    <Link
+                      key={product.id}
+                      to={`/product/${product.id}`}
+                      onClick={closeSearch}
+                      className="flex items-center gap-3 p-2 rounded-lg hover:bg-secondary transition-colors"
+                    >
+                      <img src={product.images[0]} alt={product.name} className="w-10 h-10 object-cover rounded" />
+                      <div className="min-w-0">
+                        <p className="text-sm font-medium truncate">{product.name}</p>
+                        <p className="text-xs text-muted-foreground">{product.brand}</p>
+                      </div>
+                    </Link>
+                  ))}
+                </div>
+              )}
             </div>
           </div>
         )}
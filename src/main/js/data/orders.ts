@@ -0,0 +1,74 @@
+import type { CartItem } from '@/context/CartContext';
+
+export interface OrderLine {
+  productId: string;
+  productName: string;
+  unitPrice: number;
+  quantity: number;
+}
+
+export interface Order {
+  orderNumber: string;
+  status: string;
+  email: string;
+  total: number;
+  createdAt: string;
+  items: OrderLine[];
+}
+
+export interface ShippingDetails {
+  email: string;
+  shippingName: string;
+  shippingAddress: string;
+  phone?: string;
+}
+
+export class OrderError extends Error {
+  constructor(message: string, readonly status: number) {
+    super(message);
+  }
+}
+
+const RETRIES = 3;
+
+/**
+ * Places the order under an idempotency key. Network failures and server
+ * errors are retried with the same key, so a retry can never place a second
+ * order; create a new key only for a new checkout.
+ */
+export const placeOrder = async (
+  idempotencyKey: string,
+  shipping: ShippingDetails,
+  items: CartItem[]
+): Promise<Order> => {
+  const body = JSON.stringify({
+    ...shipping,
+    items: items.map(item => ({ productId: item.product.id, quantity: item.quantity })),
+  });
+  let lastError: unknown;
+  for (let attempt = 0; attempt < RETRIES; attempt++) {
+    if (attempt > 0) {
+      await new Promise(resolve => setTimeout(resolve, 250 * 2 ** attempt));
+    }
+    let response: Response;
+    try {
+      response = await fetch('/api/orders', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json', 'Idempotency-Key': idempotencyKey },
+        body,
+      });
+    } catch (err) {
+      lastError = err;
+      continue;
+    }
+    if (response.ok) {
+      return response.json();
+    }
+    const error = await response.json().catch(() => ({ error: `Order failed (${response.status})` }));
+    lastError = new OrderError(error.error, response.status);
+    if (response.status < 500) {
+      break;
+    }
+  }
+  throw lastError;
+};
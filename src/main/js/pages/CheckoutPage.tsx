@@ -15,6 +15,7 @@ import { useCart } from '@/context/CartContext';
 import { toast } from 'sonner';
 import { cn } from '@/lib/utils';
 import { WebAuthn } from '@/components/auth/Webauthn';
+import { placeOrder } from '@/data/orders';
 
 type Step = 'address' | 'payment' | 'confirm';
 
@@ -33,6 +34,8 @@ const CheckoutPage = () => {
   const [showPaymentPasskeyPrompt, setShowPaymentPasskeyPrompt] = useState(false);
   const [paymentPasskeyExists, setPaymentPasskeyExists] = useState(false);
   const [payWithPasskeyLoading, setPayWithPasskeyLoading] = useState(false);
+  // One key per checkout: every retry of the order below reuses it
+  const [idempotencyKey] = useState(() => crypto.randomUUID());
 
   const paymentWebAuthn = new WebAuthn({
     registerOptionsChallengePath: '/q/webauthn/register-options-challenge',
@@ -134,6 +137,13 @@ const CheckoutPage = () => {
     setIsProcessing(true);
     toast.success('OTP verified');
     setShowOtpModal(false);
+    try {
+      await submitOrder();
+    } catch (err) {
+      toast.error(err instanceof Error ? err.message : 'Could not place your order');
+      setIsProcessing(false);
+      return;
+    }
     setCurrentStep('confirm');
     setOrderPlaced(true);
 
@@ -149,6 +159,23 @@ const CheckoutPage = () => {
     checkPaymentPasskey();
   };
 
+  const submitOrder = async () => {
+    const order = await placeOrder(
+      idempotencyKey,
+      {
+        email: formData.email,
+        shippingName: `${formData.firstName} ${formData.lastName}`.trim(),
+        shippingAddress: [formData.address, formData.apartment, formData.city, formData.state, formData.pincode]
+          .filter(Boolean)
+          .join(', '),
+        phone: formData.phone,
+      },
+      state.items
+    );
+    sessionStorage.setItem('lastOrderNumber', order.orderNumber);
+    return order;
+  };
+
   const handleRequestNewOtp = () => {
     generateOtp();
   };
@@ -205,6 +232,12 @@ const CheckoutPage = () => {
     try {
       await paymentWebAuthn.login({ username: paymentPasskeyUsername });
       toast.success('Payment authorized via passkey');
+      try {
+        await submitOrder();
+      } catch (err) {
+        toast.error(err instanceof Error ? err.message : 'Could not place your order');
+        return;
+      }
       if (formData.email) {
         sessionStorage.setItem('lastCheckoutEmail', formData.email);
       }
@@ -7,7 +7,7 @@ import { Button } from '@/components/ui/button';
 import { WebAuthn } from '@/components/auth/Webauthn';
 
 const OrderConfirmationPage = () => {
-  const orderId = useMemo(() => `LI${Date.now().toString().slice(-8)}`, []);
+  const [orderId] = useState(() => sessionStorage.getItem('lastOrderNumber') || '');
   const [email] = useState(() => sessionStorage.getItem('lastCheckoutEmail') || '');
   const [paymentPasskeyExists, setPaymentPasskeyExists] = useState(false);
   const [showPaymentPasskeyPrompt, setShowPaymentPasskeyPrompt] = useState(false);
@@ -1,10 +1,10 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { useParams, Link, useNavigate } from 'react-router-dom';
 import { Star, Minus, Plus, ShoppingBag, Heart, Truck, Shield, RotateCcw, ChevronRight } from 'lucide-react';
 import Layout from '@/components/layout/Layout';
 import { Button } from '@/components/ui/button';
 import ProductCard from '@/components/product/ProductCard';
-import { getProductById, products } from '@/data/products';
+import { fetchProducts, getProductById, type Product } from '@/data/products';
 import { useCart } from '@/context/CartContext';
 import { cn } from '@/lib/utils';
 import { toast } from 'sonner';
@@ -12,12 +12,32 @@ import { toast } from 'sonner';
 const ProductPage = () => {
   const { id } = useParams<{ id: string }>();
   const navigate = useNavigate();
-  const product = getProductById(id || '');
   const { addToCart, openCart } = useCart();
 
+  // null while loading, undefined when the product does not exist
+  const [product, setProduct] = useState<Product | undefined | null>(null);
+  const [relatedProducts, setRelatedProducts] = useState<Product[]>([]);
   const [selectedImage, setSelectedImage] = useState(0);
   const [quantity, setQuantity] = useState(1);
 
+  useEffect(() => {
+    setProduct(null);
+    setSelectedImage(0);
+    getProductById(id || '')
+      .then(found => {
+        setProduct(found);
+        if (found) {
+          return fetchProducts({ category: found.category, size: 5 }).then(page =>
+            setRelatedProducts(page.items.filter(p => p.id !== found.id).slice(0, 4))
+          );
+        }
+      })
+      .catch(error => {
+        console.error(error);
+        setProduct(undefined);
+      });
+  }, [id]);
+
   const formatPrice = (price: number) => {
     return new Intl.NumberFormat('en-IN', {
       style: 'currency',
@@ -26,6 +46,14 @@ const ProductPage = () => {
     }).format(price);
   };
 
+  if (product === null) {
+    return (
+      <Layout>
+        <div className="container mx-auto px-4 py-16" />
+      </Layout>
+    );
+  }
+
   if (!product) {
     return (
       <Layout>
@@ -44,10 +72,6 @@ const ProductPage = () => {
     ? Math.round(((product.originalPrice - product.price) / product.originalPrice) * 100)
     : 0;
 
-  const relatedProducts = products
-    .filter(p => p.category === product.category && p.id !== product.id)
-    .slice(0, 4);
-
   const handleAddToCart = () => {
     addToCart(product, quantity);
     openCart();
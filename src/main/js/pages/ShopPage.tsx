@@ -1,15 +1,15 @@
-import { useState, useMemo } from 'react';
+import { useEffect, useState } from 'react';
 import { useParams } from 'react-router-dom';
 import { ChevronDown, Grid3X3, List, SlidersHorizontal, X } from 'lucide-react';
 import Layout from '@/components/layout/Layout';
 import ProductCard from '@/components/product/ProductCard';
 import { Button } from '@/components/ui/button';
-import { products, getSubcategories, getBrands } from '@/data/products';
+import { fetchProducts, getSubcategories, getBrands, type Product, type SortBy } from '@/data/products';
 import { cn } from '@/lib/utils';
 
 const ShopPage = () => {
   const { category } = useParams<{ category: 'perfumes' | 'chocolates' }>();
-  const [sortBy, setSortBy] = useState('featured');
+  const [sortBy, setSortBy] = useState<SortBy>('featured');
   const [selectedSubcategory, setSelectedSubcategory] = useState<string | null>(null);
   const [selectedBrand, setSelectedBrand] = useState<string | null>(null);
   const [priceRange, setPriceRange] = useState<[number, number]>([0, 10000]);
@@ -17,44 +17,38 @@ const ShopPage = () => {
   const [viewMode, setViewMode] = useState<'grid' | 'list'>('grid');
 
   const validCategory = category === 'perfumes' || category === 'chocolates' ? category : 'perfumes';
-  const subcategories = getSubcategories(validCategory);
-  const brands = getBrands(validCategory);
+  const [subcategories, setSubcategories] = useState<string[]>([]);
+  const [brands, setBrands] = useState<string[]>([]);
+  const [filteredProducts, setFilteredProducts] = useState<Product[]>([]);
+  const [total, setTotal] = useState(0);
 
-  const filteredProducts = useMemo(() => {
-    let filtered = products.filter(p => p.category === validCategory);
+  useEffect(() => {
+    getSubcategories(validCategory).then(setSubcategories).catch(console.error);
+    getBrands(validCategory).then(setBrands).catch(console.error);
+  }, [validCategory]);
 
-    if (selectedSubcategory) {
-      filtered = filtered.filter(p => p.subcategory === selectedSubcategory);
-    }
-
-    if (selectedBrand) {
-      filtered = filtered.filter(p => p.brand === selectedBrand);
-    }
-
-    filtered = filtered.filter(
-      p => p.price >= priceRange[0] && p.price <= priceRange[1]
-    );
-
-    // Sort
-    switch (sortBy) {
-      case 'price-low':
-        filtered.sort((a, b) => a.price - b.price);
-        break;
-      case 'price-high':
-        filtered.sort((a, b) => b.price - a.price);
-        break;
-      case 'rating':
-        filtered.sort((a, b) => b.rating - a.rating);
-        break;
-      case 'newest':
-        filtered.sort((a, b) => b.reviewCount - a.reviewCount);
-        break;
-      default:
-        // Featured first
-        filtered.sort((a, b) => (b.featured ? 1 : 0) - (a.featured ? 1 : 0));
-    }
-
-    return filtered;
+  useEffect(() => {
+    // Ignore responses that arrive after the filters changed again
+    let current = true;
+    fetchProducts({
+      category: validCategory,
+      subcategory: selectedSubcategory,
+      brand: selectedBrand,
+      minPrice: priceRange[0],
+      maxPrice: priceRange[1],
+      sort: sortBy,
+      size: 100,
+    })
+      .then(page => {
+        if (current) {
+          setFilteredProducts(page.items);
+          setTotal(page.total);
+        }
+      })
+      .catch(console.error);
+    return () => {
+      current = false;
+    };
   }, [validCategory, selectedSubcategory, selectedBrand, priceRange, sortBy]);
 
   const clearFilters = () => {
@@ -190,7 +184,7 @@ const ShopPage = () => {
                   Filters
                 </button>
                 <p className="text-muted-foreground text-sm">
-                  {filteredProducts.length} products
+                  {total} products
                 </p>
               </div>
 
@@ -199,7 +193,7 @@ const ShopPage = () => {
                 <div className="relative">
                   <select
                     value={sortBy}
-                    onChange={e => setSortBy(e.target.value)}
+                    onChange={e => setSortBy(e.target.value as SortBy)}
                     className="appearance-none bg-secondary px-4 py-2 pr-8 rounded-lg text-sm focus:outline-none focus:ring-2 focus:ring-gold"
                   >
                     <option value="featured">Featured</option>
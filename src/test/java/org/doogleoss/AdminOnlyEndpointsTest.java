@@ -0,0 +1,73 @@
+package org.doogleoss;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.anyOf;
+import static org.hamcrest.CoreMatchers.is;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.TestSecurity;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+/**
+ * Endpoints that change or dump data are for admins only. Anonymous callers
+ * get the WebAuthn challenge (401, or a redirect to the login page) and
+ * signed-in users without the admin role get 403.
+ */
+@QuarkusTest
+class AdminOnlyEndpointsTest {
+
+    record Endpoint(String method, String path, String contentType, String body) {
+        Endpoint(String method, String path) {
+            this(method, path, ContentType.JSON.toString(), "");
+        }
+    }
+
+    static final List<Endpoint> ADMIN_ONLY = List.of(
+        new Endpoint("GET", "/api/admin/roles/alice"),
+        new Endpoint("PUT", "/api/admin/roles/alice/admin"),
+        new Endpoint("DELETE", "/api/admin/roles/alice/admin"),
+        new Endpoint("GET", "/api/admin/caches"),
+        new Endpoint("GET", "/api/admin/users"),
+        new Endpoint("GET", "/api/admin/users/export"),
+        new Endpoint("GET", "/api/admin/passkey-users"),
+        new Endpoint("GET", "/api/admin/passkey-users/export"),
+        new Endpoint("GET", "/api/admin/replica"),
+        new Endpoint("PUT", "/api/catalog/products/p-1", ContentType.JSON.toString(), "{\"id\":\"p-1\"}"),
+        new Endpoint("DELETE", "/api/catalog/products/p-1"),
+        new Endpoint("POST", "/api/catalog/reload"),
+        new Endpoint("POST", "/api/users/import", "application/x-ndjson", ""),
+        new Endpoint("POST", "/api/users/import", "text/csv", "username,firstName,lastName,email\n"));
+
+    @Test
+    void anonymousCallersAreChallenged() {
+        for (Endpoint endpoint : ADMIN_ONLY) {
+            call(endpoint).then().statusCode(anyOf(is(401), is(302)));
+        }
+    }
+
+    @Test
+    @TestSecurity(user = "alice", roles = "user")
+    void usersAreForbidden() {
+        for (Endpoint endpoint : ADMIN_ONLY) {
+            call(endpoint).then().statusCode(403);
+        }
+    }
+
+    @Test
+    @TestSecurity(user = "root", roles = "admin")
+    void adminsAreAllowed() {
+        given().when().get("/api/admin/roles/nobody").then().statusCode(200);
+    }
+
+    private static Response call(Endpoint endpoint) {
+        return given().redirects().follow(false)
+                      .contentType(endpoint.contentType())
+                      .body(endpoint.body())
+                      .when().request(endpoint.method(), endpoint.path());
+    }
+}
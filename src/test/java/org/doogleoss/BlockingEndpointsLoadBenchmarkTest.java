@@ -0,0 +1,155 @@
+package org.doogleoss;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.doogleoss.bench.Latencies;
+import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.repository.UserRepository;
+import org.doogleoss.service.PasswordHasher;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * Many concurrent clients on the blocking {@code /api/users} endpoints: user
+ * lookups, passkey presence checks and, now and then, a password login.
+ * Reports the latency percentiles, the requests that failed, the peak number
+ * of platform threads and the peak heap while under load.
+ * {@link VirtualThreadBlockingEndpointsLoadBenchmarkTest} runs it with
+ * {@code quarkus.virtual-threads.enabled}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+class BlockingEndpointsLoadBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(BlockingEndpointsLoadBenchmarkTest.class);
+
+    static final String PASSWORD = "correct-horse-battery";
+    static final int USERS = 1_000;
+    static final int CLIENTS = 1_000;
+    static final int REQUESTS_PER_CLIENT = 50;
+    static final int LOGIN_EVERY = 50;
+
+    @TestHTTPResource("/api/users")
+    URL usersUrl;
+
+    @ConfigProperty(name = "quarkus.virtual-threads.enabled")
+    boolean virtualThreadsEnabled;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    PasswordHasher passwordHasher;
+
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void concurrentClients() throws Exception {
+        List<LuxeUser> users = seed(UUID.randomUUID().toString().substring(0, 8));
+        for (int i = 0; i < USERS; i++) {
+            send(users.get(i), i);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        Latencies latencies = new Latencies(CLIENTS * REQUESTS_PER_CLIENT);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        latencies.start();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.execute(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        int request = next.getAndIncrement();
+                        long start = System.nanoTime();
+                        try {
+                            if (send(users.get(request % USERS), request) != 200) {
+                                failed.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                        latencies.record(request, System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        latencies.finish();
+        running.set(false);
+        sampler.join();
+
+        LOG.infof("%s; %,d failed; platform threads %d before, %d at peak; peak heap %,d MB",
+                  latencies.summary(virtualThreadsEnabled ? "virtual threads " : "platform threads"),
+                  failed.get(), threadsBefore, threads.getPeakThreadCount(), peakHeap.get() >> 20);
+        assertEquals(0, failed.get());
+    }
+
+    private int send(LuxeUser user, int request) throws Exception {
+        HttpRequest.Builder builder;
+        if (request % LOGIN_EVERY == 0) {
+            String body = "{\"username\":\"" + user.username + "\",\"password\":\"" + PASSWORD + "\"}";
+            builder = HttpRequest.newBuilder(URI.create(usersUrl + "/login"))
+                                 .header("Content-Type", "application/json")
+                                 .POST(HttpRequest.BodyPublishers.ofString(body));
+        } else if (request % 2 == 0) {
+            builder = HttpRequest.newBuilder(URI.create(usersUrl + "/" + user.id)).GET();
+        } else {
+            builder = HttpRequest.newBuilder(URI.create(usersUrl + "/" + user.username + "/webauthn/credentials"))
+                                 .GET();
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private List<LuxeUser> seed(String prefix) {
+        String hash = passwordHasher.hash(PASSWORD);
+        List<LuxeUser> users = new ArrayList<>(USERS);
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < USERS; i++) {
+                LuxeUser user = new LuxeUser(prefix + "-user-" + i, "First", "Last", prefix + "-" + i + "@example.com");
+                user.password = hash;
+                userRepository.persist(user);
+                users.add(user);
+            }
+        });
+        return users;
+    }
+}
@@ -17,4 +17,15 @@ class GreetingResourceTest {
              .body(is("Hello from Quarkus REST"));
     }
 
+    @Test
+    void testHelloEndpointFromBrowser() {
+        // Not shadowed by the single-page app's fallback to index.html
+        given()
+          .header("Accept", "text/html,application/xhtml+xml,*/*;q=0.8")
+          .when().get("/hello")
+          .then()
+             .statusCode(200)
+             .body(is("Hello from Quarkus REST"));
+    }
+
 }
\ No newline at end of file
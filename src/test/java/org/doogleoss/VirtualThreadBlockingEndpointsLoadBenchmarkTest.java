@@ -0,0 +1,23 @@
+package org.doogleoss;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(VirtualThreadBlockingEndpointsLoadBenchmarkTest.VirtualThreads.class)
+@Tag("benchmark")
+class VirtualThreadBlockingEndpointsLoadBenchmarkTest extends BlockingEndpointsLoadBenchmarkTest {
+    // Same clients, the /api/users resources and MyWebAuthnSetup on virtual threads
+
+    public static class VirtualThreads implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.virtual-threads.enabled", "true");
+        }
+    }
+}
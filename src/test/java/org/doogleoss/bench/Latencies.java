@@ -0,0 +1,52 @@
+package org.doogleoss.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-size latency sample buffer for the benchmark-tagged tests.
+ * Each operation writes its own slot, so recording needs no synchronization.
+ */
+public class Latencies {
+
+    private final long[] nanos;
+    private long startedAt;
+    private long finishedAt;
+
+    public Latencies(int operations) {
+        this.nanos = new long[operations];
+    }
+
+    public int size() {
+        return nanos.length;
+    }
+
+    public void start() {
+        startedAt = System.nanoTime();
+    }
+
+    public void finish() {
+        finishedAt = System.nanoTime();
+    }
+
+    public void record(int operation, long elapsedNanos) {
+        nanos[operation] = elapsedNanos;
+    }
+
+    public double throughput() {
+        return nanos.length / ((finishedAt - startedAt) / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public double percentileMillis(double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    public String summary(String name) {
+        return String.format("%s: %,d ops, %,.0f ops/s, p50=%.3f ms, p99=%.3f ms, p99.9=%.3f ms",
+                             name, nanos.length, throughput(),
+                             percentileMillis(50), percentileMillis(99), percentileMillis(99.9));
+    }
+}
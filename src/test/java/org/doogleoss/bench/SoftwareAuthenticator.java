@@ -0,0 +1,215 @@
+package org.doogleoss.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * In-process stand-in for a platform authenticator holding one ES256 passkey.
+ * Answers the options of {@code /q/webauthn/register-options-challenge} and
+ * {@code /q/webauthn/login-options-challenge} with the JSON bodies the
+ * browser client posts to {@code /q/webauthn/register} and
+ * {@code /q/webauthn/login}, using "none" attestation.
+ * Not thread-safe: one instance per virtual user.
+ */
+public class SoftwareAuthenticator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+    // User present, user verified, attested credential data included
+    private static final int FLAGS_REGISTRATION = 0x01 | 0x04 | 0x40;
+    private static final int FLAGS_ASSERTION = 0x01 | 0x04;
+    private static final int COSE_ES256 = -7;
+
+    private final String origin;
+    private final byte[] credentialId = new byte[32];
+    private final KeyPair keyPair;
+    private byte[] userHandle;
+    private int signCount;
+
+    public SoftwareAuthenticator(String origin) {
+        this.origin = origin;
+        ThreadLocalRandom.current().nextBytes(credentialId);
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            keyPair = generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * navigator.credentials.create() for the given PublicKeyCredentialCreationOptions
+     */
+    public ObjectNode register(JsonNode creationOptions) {
+        userHandle = BASE64URL_DECODER.decode(creationOptions.path("user").path("id").asText());
+        byte[] clientData = clientData("webauthn.create", creationOptions.path("challenge").asText());
+
+        byte[] credentialPublicKey = coseKey((ECPublicKey) keyPair.getPublic());
+        ByteBuffer authenticatorData = ByteBuffer.allocate(37 + 16 + 2 + credentialId.length + credentialPublicKey.length);
+        authenticatorData.put(sha256(creationOptions.path("rp").path("id").asText().getBytes(StandardCharsets.UTF_8)))
+                         .put((byte) FLAGS_REGISTRATION)
+                         .putInt(signCount)
+                         // all-zero AAGUID, as software and "none" attestation authenticators report
+                         .put(new byte[16])
+                         .putShort((short) credentialId.length)
+                         .put(credentialId)
+                         .put(credentialPublicKey);
+
+        Cbor attestationObject = new Cbor().map(3)
+            .text("fmt").text("none")
+            .text("attStmt").map(0)
+            .text("authData").bytes(authenticatorData.array());
+
+        ObjectNode response = JSON.createObjectNode()
+            .put("attestationObject", BASE64URL.encodeToString(attestationObject.toByteArray()))
+            .put("clientDataJSON", BASE64URL.encodeToString(clientData));
+        return credential(response);
+    }
+
+    /**
+     * navigator.credentials.get() for the given PublicKeyCredentialRequestOptions
+     */
+    public ObjectNode login(JsonNode requestOptions) {
+        byte[] clientData = clientData("webauthn.get", requestOptions.path("challenge").asText());
+        signCount++;
+        byte[] authenticatorData = ByteBuffer.allocate(37)
+            .put(sha256(requestOptions.path("rpId").asText().getBytes(StandardCharsets.UTF_8)))
+            .put((byte) FLAGS_ASSERTION)
+            .putInt(signCount)
+            .array();
+        byte[] signature;
+        try {
+            Signature signer = Signature.getInstance("SHA256withECDSA");
+            signer.initSign(keyPair.getPrivate());
+            signer.update(authenticatorData);
+            signer.update(sha256(clientData));
+            signature = signer.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ObjectNode response = JSON.createObjectNode()
+            .put("clientDataJSON", BASE64URL.encodeToString(clientData))
+            .put("authenticatorData", BASE64URL.encodeToString(authenticatorData))
+            .put("signature", BASE64URL.encodeToString(signature))
+            .put("userHandle", BASE64URL.encodeToString(userHandle));
+        return credential(response);
+    }
+
+    private ObjectNode credential(ObjectNode response) {
+        String id = BASE64URL.encodeToString(credentialId);
+        ObjectNode credential = JSON.createObjectNode()
+            .put("id", id)
+            .put("rawId", id)
+            .put("type", "public-key");
+        credential.set("response", response);
+        return credential;
+    }
+
+    private byte[] clientData(String type, String challenge) {
+        ObjectNode clientData = JSON.createObjectNode()
+            .put("type", type)
+            .put("challenge", challenge)
+            .put("origin", origin)
+            .put("crossOrigin", false);
+        return clientData.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] coseKey(ECPublicKey publicKey) {
+        return new Cbor().map(5)
+            .integer(1).integer(2)              // kty: EC2
+            .integer(3).integer(COSE_ES256)     // alg: ES256
+            .integer(-1).integer(1)             // crv: P-256
+            .integer(-2).bytes(coordinate(publicKey.getW().getAffineX()))
+            .integer(-3).bytes(coordinate(publicKey.getW().getAffineY()))
+            .toByteArray();
+    }
+
+    private static byte[] coordinate(BigInteger value) {
+        // Unsigned and left-padded to the 32 bytes of a P-256 coordinate
+        byte[] bytes = value.toByteArray();
+        byte[] coordinate = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, coordinate, 32 - length, length);
+        return coordinate;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The few CBOR items attestation objects and COSE keys need
+     */
+    static class Cbor {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Cbor map(int entries) {
+            return header(5, entries);
+        }
+
+        Cbor integer(long value) {
+            return value >= 0 ? header(0, value) : header(1, -1 - value);
+        }
+
+        Cbor bytes(byte[] value) {
+            header(2, value.length);
+            out.writeBytes(value);
+            return this;
+        }
+
+        Cbor text(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            header(3, utf8.length);
+            out.writeBytes(utf8);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private Cbor header(int majorType, long argument) {
+            int major = majorType << 5;
+            if (argument < 24) {
+                out.write(major | (int) argument);
+            } else if (argument < 0x100) {
+                out.write(major | 24);
+                out.write((int) argument);
+            } else if (argument < 0x10000) {
+                out.write(major | 25);
+                out.write((int) (argument >> 8));
+                out.write((int) argument);
+            } else {
+                out.write(major | 26);
+                for (int shift = 24; shift >= 0; shift -= 8) {
+                    out.write((int) (argument >> shift));
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.doogleoss.catalog;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.TestSecurity;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@TestSecurity(user = "root", roles = "admin")
+class CatalogResourceTest {
+
+    @Inject
+    CatalogService catalogService;
+
+    @Test
+    void upsertRefusesProductsMissingIndexedFields() {
+        for (String body : new String[] {
+            "{\"id\":\"incomplete\",\"name\":\"Silk Scarf\"}",
+            "{\"id\":\"incomplete\",\"name\":\"Silk Scarf\",\"category\":\"women\",\"subcategory\":\"scarves\"}",
+            "{\"id\":\"incomplete\",\"name\":\" \",\"category\":\"women\",\"subcategory\":\"scarves\","
+                + "\"brand\":\"Maison\"}"}) {
+            given().contentType(ContentType.JSON).body(body)
+                   .when().put("/api/catalog/products/incomplete")
+                   .then().statusCode(400);
+        }
+
+        assertNull(catalogService.snapshot().byId("incomplete"));
+        // The catalog is still served
+        given().when().get("/api/catalog/products").then().statusCode(200);
+    }
+
+    @Test
+    void upsertAcceptsACompleteProduct() {
+        given().contentType(ContentType.JSON)
+               .body("{\"id\":\"complete\",\"name\":\"Silk Scarf\",\"category\":\"women\","
+                     + "\"subcategory\":\"scarves\",\"brand\":\"Maison\",\"price\":100}")
+               .when().put("/api/catalog/products/complete")
+               .then().statusCode(200);
+
+        given().when().delete("/api/catalog/products/complete").then().statusCode(204);
+    }
+}
@@ -0,0 +1,88 @@
+package org.doogleoss.catalog;
+
+import static org.doogleoss.catalog.CatalogSnapshotTest.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.doogleoss.dto.ProductPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CatalogServiceTest {
+
+    final CatalogService catalogService = new CatalogService();
+    final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        // Ten products at 100, 200, ... 1000, alternating brands, in two subcategories
+        for (int i = 1; i <= 10; i++) {
+            Product product = product("p" + i, "women", i <= 6 ? "bags" : "scarves", i % 2 == 0 ? "Maison" : "Atelier",
+                                      i * 100L, 4.0, i, false);
+            products.add(product);
+            catalogService.upsert(product);
+        }
+    }
+
+    @Test
+    void pagesThroughTheSortedView() {
+        ProductPage first = catalogService.find("women", null, null, null, null, ProductSort.PRICE_HIGH, 0, 4);
+        assertEquals(ids("p10", "p9", "p8", "p7"), ids(first));
+        assertEquals(10, first.total);
+        assertEquals(0, first.page);
+        assertEquals(4, first.size);
+
+        ProductPage last = catalogService.find("women", null, null, null, null, ProductSort.PRICE_HIGH, 2, 4);
+        assertEquals(ids("p2", "p1"), ids(last));
+        assertEquals(10, last.total);
+
+        ProductPage beyond = catalogService.find("women", null, null, null, null, ProductSort.PRICE_HIGH, 5, 4);
+        assertEquals(List.of(), beyond.items);
+        assertEquals(10, beyond.total);
+
+        // page * size overflows an int
+        ProductPage far = catalogService.find("women", null, null, null, null, ProductSort.PRICE_HIGH,
+                                              Integer.MAX_VALUE / 2, 4);
+        assertEquals(List.of(), far.items);
+        assertEquals(10, far.total);
+    }
+
+    @Test
+    void filtersBySubcategoryBrandAndPrice() {
+        ProductPage scarves = catalogService.find("women", "scarves", null, null, null, ProductSort.PRICE_LOW, 0, 10);
+        assertEquals(ids("p7", "p8", "p9", "p10"), ids(scarves));
+
+        ProductPage maison = catalogService.find("women", null, "Maison", null, null, ProductSort.NEWEST, 0, 2);
+        assertEquals(ids("p10", "p8"), ids(maison));
+        assertEquals(5, maison.total);
+
+        // Bounds are inclusive
+        ProductPage range = catalogService.find(null, null, "Atelier", 300L, 700L, ProductSort.PRICE_LOW, 1, 2);
+        assertEquals(ids("p7"), ids(range));
+        assertEquals(3, range.total);
+
+        ProductPage none = catalogService.find("men", null, null, null, null, ProductSort.FEATURED, 0, 10);
+        assertEquals(List.of(), none.items);
+        assertEquals(0, none.total);
+    }
+
+    @Test
+    void seesUpsertsAndRemovals() {
+        catalogService.upsert(product("p3", "women", "bags", "Maison", 50, 4.0, 3, false));
+        catalogService.remove("p1");
+
+        ProductPage maison = catalogService.find("women", "bags", "Maison", null, null, ProductSort.PRICE_LOW, 0, 10);
+        assertEquals(ids("p3", "p2", "p4", "p6"), ids(maison));
+        assertEquals(5, catalogService.find("women", "bags", null, null, null, ProductSort.FEATURED, 0, 1).total);
+    }
+
+    private static List<String> ids(String... ids) {
+        return List.of(ids);
+    }
+
+    private static List<String> ids(ProductPage page) {
+        return page.items.stream().map(Product::id).toList();
+    }
+}
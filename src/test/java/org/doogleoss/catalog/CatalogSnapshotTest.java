@@ -0,0 +1,79 @@
+package org.doogleoss.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CatalogSnapshotTest {
+
+    static final Product SCARF = product("scarf", "women", "scarves", "Maison", 300, 4.8, 120, true);
+    static final Product SHAWL = product("shawl", "women", "scarves", "Atelier", 500, 4.2, 40, false);
+    static final Product BAG = product("bag", "women", "bags", "Maison", 900, 4.8, 300, false);
+    static final Product TIE = product("tie", "men", "ties", "Maison", 150, 3.9, 80, true);
+    static final Product BELT = product("belt", "men", "belts", "Sellier", 300, 4.5, 10, false);
+
+    final CatalogSnapshot snapshot = new CatalogSnapshot(List.of(SCARF, SHAWL, BAG, TIE, BELT));
+
+    @Test
+    void sortsEveryViewKeepingCatalogOrderOnTies() {
+        assertEquals(List.of(SCARF, TIE, SHAWL, BAG, BELT), snapshot.sorted(null, null, ProductSort.FEATURED));
+        assertEquals(List.of(TIE, SCARF, BELT, SHAWL, BAG), snapshot.sorted(null, null, ProductSort.PRICE_LOW));
+        assertEquals(List.of(BAG, SHAWL, SCARF, BELT, TIE), snapshot.sorted(null, null, ProductSort.PRICE_HIGH));
+        assertEquals(List.of(SCARF, BAG, BELT, SHAWL, TIE), snapshot.sorted(null, null, ProductSort.RATING));
+        assertEquals(List.of(BAG, SCARF, TIE, SHAWL, BELT), snapshot.sorted(null, null, ProductSort.NEWEST));
+    }
+
+    @Test
+    void keysViewsByCategoryAndSubcategory() {
+        assertEquals(List.of(SCARF, SHAWL, BAG), snapshot.sorted("women", null, ProductSort.PRICE_LOW));
+        assertEquals(List.of(SHAWL, SCARF), snapshot.sorted("women", "scarves", ProductSort.PRICE_HIGH));
+        assertEquals(List.of(BELT), snapshot.sorted("men", "belts", ProductSort.FEATURED));
+        // A subcategory is only found under its own category
+        assertEquals(List.of(), snapshot.sorted("men", "scarves", ProductSort.FEATURED));
+        assertEquals(List.of(), snapshot.sorted("kids", null, ProductSort.FEATURED));
+
+        assertEquals(List.of("bags", "scarves"), snapshot.subcategories("women"));
+        assertEquals(List.of(), snapshot.subcategories("kids"));
+        assertEquals(List.of("Atelier", "Maison", "Sellier"), snapshot.brands(null));
+        assertEquals(List.of("Maison", "Sellier"), snapshot.brands("men"));
+    }
+
+    @Test
+    void listsFeaturedAndBestSellersInCatalogOrder() {
+        assertEquals(List.of(SCARF, TIE), snapshot.featured());
+        assertEquals(List.of(), snapshot.bestSellers());
+        assertEquals(BELT, snapshot.byId("belt"));
+        assertNull(snapshot.byId("hat"));
+    }
+
+    @Test
+    void replacesAndRemovesProducts() {
+        Product cheaperBag = product("bag", "women", "bags", "Maison", 100, 4.8, 300, false);
+
+        CatalogSnapshot updated = snapshot.with(cheaperBag);
+        assertEquals(5, updated.size());
+        assertEquals(List.of(cheaperBag, SCARF, SHAWL), updated.sorted("women", null, ProductSort.PRICE_LOW));
+        assertEquals(List.of(SCARF, SHAWL, BAG), snapshot.sorted("women", null, ProductSort.PRICE_LOW));
+
+        CatalogSnapshot removed = updated.without("belt");
+        assertEquals(List.of("Maison"), removed.brands("men"));
+        assertEquals(List.of(), removed.sorted("men", "belts", ProductSort.FEATURED));
+        assertSame(removed, removed.without("belt"));
+    }
+
+    @Test
+    void refusesDuplicateIds() {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogSnapshot(List.of(SCARF, SCARF)));
+    }
+
+    static Product product(String id, String category, String subcategory, String brand, long price,
+                           double rating, int reviewCount, boolean featured) {
+        return new Product(id, id, category, subcategory, price, null, "", List.of(), List.of(),
+                           rating, reviewCount, true, 5, brand, featured, false);
+    }
+}
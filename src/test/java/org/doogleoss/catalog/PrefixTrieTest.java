@@ -0,0 +1,83 @@
+package org.doogleoss.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class PrefixTrieTest {
+
+    @Test
+    void completesMostFrequentFirstThenAlphabetically() {
+        PrefixTrie trie = PrefixTrie.of(Map.of("silk", 3, "silver", 7, "sil", 3, "scarf", 9, "satin", 1));
+
+        assertEquals(List.of("silver", "sil", "silk"), terms(trie.complete("si", 10)));
+        assertEquals(List.of("scarf", "silver"), terms(trie.complete("s", 2)));
+        assertEquals(List.of("silk"), terms(trie.complete("silk", 10)));
+        assertEquals(List.of(), trie.complete("wool", 10));
+    }
+
+    @Test
+    void keepsTheBestTenBelowEachNode() {
+        Map<String, Integer> weights = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            weights.put("term" + i, i);
+        }
+        PrefixTrie trie = PrefixTrie.of(weights);
+
+        List<PrefixTrie.Completion> top = trie.complete("term", 50);
+        assertEquals(PrefixTrie.TOP, top.size());
+        assertEquals("term29", top.get(0).term());
+        assertEquals("term20", top.get(PrefixTrie.TOP - 1).term());
+    }
+
+    @Test
+    void insertsAndReweighsWithoutChangingThePreviousTrie() {
+        PrefixTrie before = PrefixTrie.of(Map.of("silk", 3, "silver", 7));
+
+        PrefixTrie after = before.with("silken", 5).with("silk", 9);
+
+        assertEquals(List.of("silk", "silver", "silken"), terms(after.complete("sil", 10)));
+        assertEquals(List.of("silver", "silk"), terms(before.complete("sil", 10)));
+        assertEquals(9, after.complete("silk", 1).get(0).weight());
+    }
+
+    @Test
+    void removesTermsAndPrunesEmptyBranches() {
+        PrefixTrie trie = PrefixTrie.of(Map.of("silk", 3, "silken", 5, "scarf", 2));
+
+        PrefixTrie withoutSilken = trie.with("silken", 0);
+        assertEquals(List.of("silk"), terms(withoutSilken.complete("sil", 10)));
+        assertEquals(List.of(), withoutSilken.complete("silke", 10));
+
+        // The node of "silk" goes too once "silken" is gone: the whole branch is pruned
+        PrefixTrie onlyScarf = withoutSilken.with("silk", 0);
+        assertEquals(List.of(), onlyScarf.complete("si", 10));
+        assertEquals(List.of("scarf"), terms(onlyScarf.complete("s", 10)));
+
+        // Removing a term that is not there changes nothing
+        assertEquals(List.of("scarf"), terms(onlyScarf.with("wool", 0).complete("", 10)));
+        assertEquals(List.of(), onlyScarf.with("scarf", 0).complete("", 10));
+    }
+
+    @Test
+    void buildsTheSameTrieInOnePassAsByInsertion() {
+        Map<String, Integer> weights = Map.of("a", 1, "ab", 4, "abc", 2, "b", 3, "ba", 5, "bab", 6);
+        PrefixTrie inserted = new PrefixTrie();
+        for (Map.Entry<String, Integer> term : weights.entrySet()) {
+            inserted = inserted.with(term.getKey(), term.getValue());
+        }
+        PrefixTrie built = PrefixTrie.of(weights);
+
+        for (String prefix : List.of("", "a", "ab", "abc", "b", "ba", "bab", "c")) {
+            assertEquals(built.complete(prefix, 10), inserted.complete(prefix, 10), prefix);
+        }
+    }
+
+    private static List<String> terms(List<PrefixTrie.Completion> completions) {
+        return completions.stream().map(PrefixTrie.Completion::term).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package org.doogleoss.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class SearchIndexTest {
+
+    static final Product SCARF = product("scarf", "Silk Scarf", "Maison", "Scarves", "A scarf woven in silk");
+    static final Product TIE = product("tie", "Wool Tie", "Maison", "Ties", "A tie with a silk lining");
+    static final Product BAG = product("bag", "Leather Bag", "Atelier", "Bags", "Calf leather with brass fittings");
+    static final Product CHOCOLATE = product("chocolate", "Délices de Noël", "Chocolatier", "Pralines",
+                                             "Pralinés au chocolat");
+
+    final SearchIndex index = SearchIndex.of(List.of(SCARF, TIE, BAG, CHOCOLATE));
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        Map<String, Double> hits = index.search("silk", 10);
+
+        assertEquals(List.of("scarf", "tie"), new ArrayList<>(hits.keySet()));
+        assertTrue(hits.get("scarf") > hits.get("tie"));
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        // "maison" is in two products, "leather" in one: BM25 favours the rarer term
+        Map<String, Double> hits = index.search("maison leather", 10);
+
+        assertEquals("bag", hits.keySet().iterator().next());
+        assertEquals(3, hits.size());
+    }
+
+    @Test
+    void keepsTheTopKWithTiesById() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            products.add(product("p" + i, "Cashmere Throw", "Maison", "Throws", ""));
+        }
+        SearchIndex identical = SearchIndex.of(products);
+
+        assertEquals(List.of("p0", "p1", "p2"), new ArrayList<>(identical.search("cashmere", 3).keySet()));
+        assertEquals(10, identical.search("cashmere", 50).size());
+    }
+
+    @Test
+    void foldsAccentsAndCase() {
+        assertEquals(List.of("delices", "noel"), SearchIndex.tokenize("Délices de NOËL"));
+        assertEquals(List.of("chocolate"), new ArrayList<>(index.search("delices", 10).keySet()));
+        assertEquals(List.of("chocolate"), new ArrayList<>(index.search("PRALINÉS", 10).keySet()));
+    }
+
+    @Test
+    void tokenizesIndependentlyOfTheDefaultLocale() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            assertEquals(List.of("silk"), SearchIndex.tokenize("SILK"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    void completesTheLastWordAsAPrefix() {
+        assertEquals(List.of("scarf", "tie"), new ArrayList<>(index.search("sil", 10).keySet()));
+        assertEquals(List.of("leather"), index.complete("red lea", 5));
+    }
+
+    @Test
+    void reindexesAndRemovesOneProduct() {
+        Product renamed = product("tie", "Cotton Tie", "Maison", "Ties", "A plain tie");
+
+        SearchIndex updated = index.with(renamed);
+        assertEquals(List.of("scarf"), new ArrayList<>(updated.search("silk", 10).keySet()));
+        assertEquals(List.of("tie"), new ArrayList<>(updated.search("cotton", 10).keySet()));
+        assertEquals(4, updated.size());
+        // The previous index is unchanged
+        assertEquals(List.of("scarf", "tie"), new ArrayList<>(index.search("silk", 10).keySet()));
+
+        SearchIndex removed = updated.without("tie");
+        assertEquals(Map.of(), removed.search("cotton", 10));
+        assertEquals(List.of(), removed.complete("cott", 5));
+        assertEquals(3, removed.size());
+        assertSame(removed, removed.without("tie"));
+    }
+
+    @Test
+    void incrementalUpdatesScoreLikeAFullBuild() {
+        SearchIndex incremental = new SearchIndex().with(SCARF).with(TIE).with(BAG).with(CHOCOLATE);
+
+        for (String query : List.of("silk", "maison leather", "chocolat", "a")) {
+            Map<String, Double> expected = index.search(query, 10);
+            Map<String, Double> actual = incremental.search(query, 10);
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()), query);
+            expected.forEach((id, score) -> assertEquals(score, actual.get(id), 1e-9, query));
+        }
+    }
+
+    static Product product(String id, String name, String brand, String subcategory, String description) {
+        return new Product(id, name, "accessories", subcategory, 100, null, description, List.of(), List.of(),
+                           4.5, 10, true, 5, brand, false, false);
+    }
+}
@@ -0,0 +1,57 @@
+package org.doogleoss.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecentLatenciesTest {
+
+    RecentLatencies latencies;
+
+    @BeforeEach
+    void setUp() {
+        latencies = new RecentLatencies();
+        latencies.windowSlots = 3;
+        latencies.init();
+    }
+
+    @Test
+    void bucketsCoverEveryValueWithinTheirPrecision() {
+        for (long nanos = 0; nanos < Long.MAX_VALUE / 3; nanos = nanos * 3 / 2 + 1) {
+            int bucket = RecentLatencies.bucket(nanos);
+            assertTrue(bucket < RecentLatencies.BUCKETS);
+            assertTrue(RecentLatencies.upperBound(bucket) >= nanos);
+            assertTrue(bucket == 0 || RecentLatencies.upperBound(bucket - 1) < nanos);
+            assertTrue(RecentLatencies.upperBound(bucket) <= nanos * 1.25 + 1);
+        }
+    }
+
+    @Test
+    void p99OfTheWindow() {
+        for (int i = 0; i < 990; i++) {
+            latencies.record(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        for (int i = 0; i < 10; i++) {
+            latencies.record(TimeUnit.SECONDS.toNanos(3));
+        }
+
+        assertEquals(-1, latencies.percentile(0.99, 1001));
+        assertEquals(5, TimeUnit.NANOSECONDS.toMillis(latencies.percentile(0.99, 100)), 1);
+        assertEquals(3, TimeUnit.NANOSECONDS.toSeconds(latencies.percentile(0.999, 100)));
+    }
+
+    @Test
+    void oldIntervalsLeaveTheWindow() {
+        latencies.record(TimeUnit.SECONDS.toNanos(3));
+        latencies.rotate();
+        latencies.rotate();
+        assertEquals(3, TimeUnit.NANOSECONDS.toSeconds(latencies.percentile(0.5, 1)));
+
+        latencies.rotate();
+        assertEquals(-1, latencies.percentile(0.5, 1));
+    }
+}
@@ -0,0 +1,169 @@
+package org.doogleoss.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.doogleoss.bench.Latencies;
+import org.doogleoss.catalog.CatalogService;
+import org.doogleoss.catalog.Product;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * A flash sale on one product: virtual users order it concurrently through
+ * {@code POST /api/orders} until it sells out, against the same orders
+ * decrementing the {@code product_stock} row in their own transaction. Also
+ * checks that neither oversells and that the batched stock update catches up.
+ */
+@QuarkusTest
+@Tag("benchmark")
+class HotProductOrderBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(HotProductOrderBenchmarkTest.class);
+
+    static final int STOCK = 2_000;
+    static final int VIRTUAL_USERS = 200;
+    static final int ORDERS_PER_USER = 15;
+
+    @TestHTTPResource("/api/orders")
+    URL ordersUrl;
+
+    @Inject
+    CatalogService catalogService;
+
+    @Inject
+    StockReservations stockReservations;
+
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void stripedReservations() throws Exception {
+        String productId = hotProduct();
+        AtomicInteger placed = new AtomicInteger();
+        Latencies latencies = run(order -> {
+            String body = "{\"email\":\"buyer@example.com\",\"shippingName\":\"Buyer\","
+                          + "\"shippingAddress\":\"1 Street\","
+                          + "\"items\":[{\"productId\":\"" + productId + "\",\"quantity\":1}]}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(ordersUrl.toString()))
+                                             .header("Content-Type", "application/json")
+                                             .header("Idempotency-Key", UUID.randomUUID().toString())
+                                             .POST(HttpRequest.BodyPublishers.ofString(body))
+                                             .build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status == 201) {
+                placed.incrementAndGet();
+            } else if (status != 409) {
+                throw new IllegalStateException("POST /api/orders returned " + status);
+            }
+        });
+        LOG.info(latencies.summary("POST /api/orders, striped reservations"));
+
+        stockReservations.flush();
+        assertEquals(STOCK, placed.get());
+        assertEquals(0, stockCount(productId));
+    }
+
+    @Test
+    void rowLockPerOrder() throws Exception {
+        String productId = hotProduct();
+        AtomicInteger placed = new AtomicInteger();
+        Latencies latencies = run(order -> {
+            // What placing an order costs when it decrements the stock row itself
+            boolean sold = QuarkusTransaction.requiringNew().call(() -> {
+                int updated = ProductStock.update("stockCount = stockCount - 1"
+                                                  + " where productId = ?1 and stockCount >= 1", productId);
+                if (updated == 0) {
+                    return false;
+                }
+                CustomerOrder customerOrder = new CustomerOrder();
+                customerOrder.idempotencyKey = UUID.randomUUID().toString();
+                customerOrder.orderNumber = customerOrder.idempotencyKey;
+                customerOrder.requestHash = "";
+                customerOrder.email = "buyer@example.com";
+                customerOrder.shippingName = "Buyer";
+                customerOrder.shippingAddress = "1 Street";
+                customerOrder.status = "PLACED";
+                customerOrder.createdAt = LocalDateTime.now();
+                OrderLine line = new OrderLine();
+                line.order = customerOrder;
+                line.productId = productId;
+                line.productName = "Hot product";
+                line.quantity = 1;
+                line.stockApplied = true;
+                customerOrder.lines.add(line);
+                customerOrder.persist();
+                return true;
+            });
+            if (sold) {
+                placed.incrementAndGet();
+            }
+        });
+        LOG.info(latencies.summary("order with row lock on product_stock"));
+
+        assertEquals(STOCK, placed.get());
+        assertEquals(0, stockCount(productId));
+    }
+
+    interface Order {
+        void place(int order) throws Exception;
+    }
+
+    private Latencies run(Order order) throws InterruptedException {
+        Latencies latencies = new Latencies(VIRTUAL_USERS * ORDERS_PER_USER);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        latencies.start();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < VIRTUAL_USERS; i++) {
+                executor.execute(() -> {
+                    for (int j = 0; j < ORDERS_PER_USER; j++) {
+                        int operation = next.getAndIncrement();
+                        long start = System.nanoTime();
+                        try {
+                            order.place(operation);
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies.record(operation, System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        latencies.finish();
+        assertEquals(0, failures.get());
+        return latencies;
+    }
+
+    private String hotProduct() {
+        Product bestSeller = catalogService.snapshot().bestSellers().get(0);
+        String id = "hot-" + UUID.randomUUID().toString().substring(0, 8);
+        catalogService.upsert(new Product(id, bestSeller.name(), bestSeller.category(), bestSeller.subcategory(),
+                                          bestSeller.price(), null, bestSeller.description(), List.of(), List.of(),
+                                          bestSeller.rating(), bestSeller.reviewCount(), true, STOCK,
+                                          bestSeller.brand(), false, true));
+        // Creates the product_stock row
+        stockReservations.available(id);
+        return id;
+    }
+
+    private static int stockCount(String productId) {
+        return QuarkusTransaction.requiringNew().call(() -> ProductStock.<ProductStock>findById(productId).stockCount);
+    }
+}
@@ -0,0 +1,146 @@
+package org.doogleoss.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.doogleoss.catalog.CatalogService;
+import org.doogleoss.catalog.Product;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * A checkout retried with the same {@code Idempotency-Key} places one order,
+ * whether the retries come one after another or all at once.
+ */
+@QuarkusTest
+class OrderIdempotencyTest {
+
+    static final int STOCK = 100;
+
+    @TestHTTPResource("/api/orders")
+    URL ordersUrl;
+
+    @Inject
+    CatalogService catalogService;
+
+    @Inject
+    StockReservations stockReservations;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void retryReturnsTheSameOrder() throws Exception {
+        String productId = product();
+        String key = UUID.randomUUID().toString();
+
+        HttpResponse<String> placed = post(key, order(productId, 2));
+        assertEquals(201, placed.statusCode(), placed.body());
+        assertNull(placed.headers().firstValue(OrderResource.REPLAYED).orElse(null));
+        String orderNumber = orderNumber(placed);
+        assertTrue(orderNumber.matches("LI[0-9A-HJKMNP-TV-Z]{16}"), orderNumber);
+
+        HttpResponse<String> replayed = post(key, order(productId, 2));
+        assertEquals(200, replayed.statusCode(), replayed.body());
+        assertEquals("true", replayed.headers().firstValue(OrderResource.REPLAYED).orElse(null));
+        assertEquals(orderNumber, orderNumber(replayed));
+        assertEquals(STOCK - 2, stockReservations.available(productId));
+    }
+
+    @Test
+    void keyReusedForAnotherOrderIsRefused() throws Exception {
+        String productId = product();
+        String key = UUID.randomUUID().toString();
+
+        assertEquals(201, post(key, order(productId, 1)).statusCode());
+        HttpResponse<String> reused = post(key, order(productId, 3));
+        assertEquals(422, reused.statusCode(), reused.body());
+        assertEquals(STOCK - 1, stockReservations.available(productId));
+    }
+
+    @Test
+    void concurrentRetriesPlaceOneOrder() throws Exception {
+        String productId = product();
+        String key = UUID.randomUUID().toString();
+        String body = order(productId, 1);
+        int retries = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(retries)) {
+            for (int i = 0; i < retries; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return post(key, body);
+                }));
+            }
+            start.countDown();
+        }
+
+        int created = 0;
+        Set<String> orderNumbers = new HashSet<>();
+        for (Future<HttpResponse<String>> response : responses) {
+            HttpResponse<String> result = response.get();
+            assertTrue(result.statusCode() == 201 || result.statusCode() == 200, result.body());
+            if (result.statusCode() == 201) {
+                created++;
+            }
+            orderNumbers.add(orderNumber(result));
+        }
+        assertEquals(1, created);
+        assertEquals(1, orderNumbers.size());
+        assertEquals(1, QuarkusTransaction.requiringNew().call(() -> CustomerOrder.count("idempotencyKey", key)));
+        assertEquals(STOCK - 1, stockReservations.available(productId));
+    }
+
+    private HttpResponse<String> post(String key, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(ordersUrl.toString()))
+                                         .header("Content-Type", "application/json")
+                                         .header(OrderResource.IDEMPOTENCY_KEY, key)
+                                         .POST(HttpRequest.BodyPublishers.ofString(body))
+                                         .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String orderNumber(HttpResponse<String> response) throws Exception {
+        return objectMapper.readTree(response.body()).get("orderNumber").asText();
+    }
+
+    private static String order(String productId, int quantity) {
+        return "{\"email\":\"buyer@example.com\",\"shippingName\":\"Buyer\",\"shippingAddress\":\"1 Street\","
+               + "\"items\":[{\"productId\":\"" + productId + "\",\"quantity\":" + quantity + "}]}";
+    }
+
+    private String product() {
+        Product bestSeller = catalogService.snapshot().bestSellers().get(0);
+        String id = "idem-" + UUID.randomUUID().toString().substring(0, 8);
+        catalogService.upsert(new Product(id, bestSeller.name(), bestSeller.category(), bestSeller.subcategory(),
+                                          bestSeller.price(), null, bestSeller.description(), List.of(), List.of(),
+                                          bestSeller.rating(), bestSeller.reviewCount(), true, STOCK,
+                                          bestSeller.brand(), false, true));
+        return id;
+    }
+}
@@ -0,0 +1,70 @@
+package org.doogleoss.order;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.doogleoss.catalog.CatalogService;
+import org.doogleoss.catalog.Product;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+
+/**
+ * Malformed orders are refused with 400 before any stock is reserved.
+ */
+@QuarkusTest
+class OrderValidationTest {
+
+    static final int STOCK = 100;
+
+    @Inject
+    CatalogService catalogService;
+
+    @Inject
+    StockReservations stockReservations;
+
+    @Test
+    void quantitiesOfOneProductDoNotOverflow() {
+        String productId = product();
+        String items = "[" + item(productId, Integer.MAX_VALUE) + "," + item(productId, Integer.MAX_VALUE) + "]";
+
+        post(items).then().statusCode(400);
+
+        assertEquals(STOCK, stockReservations.available(productId));
+        assertEquals(0L, QuarkusTransaction.requiringNew().call(() -> CustomerOrder.count("total < 0")));
+    }
+
+    @Test
+    void nullItemIsABadRequest() {
+        String productId = product();
+
+        post("[" + item(productId, 1) + ",null]").then().statusCode(400);
+
+        assertEquals(STOCK, stockReservations.available(productId));
+    }
+
+    private Response post(String items) {
+        return given().contentType("application/json")
+                      .header(OrderResource.IDEMPOTENCY_KEY, UUID.randomUUID().toString())
+                      .body("{\"email\":\"buyer@example.com\",\"shippingName\":\"Buyer\","
+                            + "\"shippingAddress\":\"1 Street\",\"items\":" + items + "}")
+                      .when().post("/api/orders");
+    }
+
+    private static String item(String productId, int quantity) {
+        return "{\"productId\":\"" + productId + "\",\"quantity\":" + quantity + "}";
+    }
+
+    private String product() {
+        String id = "valid-" + UUID.randomUUID().toString().substring(0, 8);
+        catalogService.upsert(new Product(id, "Silk Scarf", "women", "scarves", 100, null, "", List.of(), List.of(),
+                                          4.5, 10, true, STOCK, "Maison", false, false));
+        return id;
+    }
+}
@@ -0,0 +1,88 @@
+package org.doogleoss.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+class StripedStockTest {
+
+    @Test
+    void neverOversellsUnderContention() throws Exception {
+        StripedStock stock = new StripedStock(10_000, 8);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> buyers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                buyers.add(executor.submit(() -> {
+                    start.await();
+                    long bought = 0;
+                    for (int failures = 0; failures < 100; ) {
+                        int quantity = ThreadLocalRandom.current().nextInt(1, 6);
+                        if (stock.tryReserve(quantity)) {
+                            bought += quantity;
+                            // Some buyers give units back, which the others may take again
+                            if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                                stock.release(quantity);
+                                bought -= quantity;
+                            }
+                        } else {
+                            failures++;
+                        }
+                    }
+                    return bought;
+                }));
+            }
+            start.countDown();
+        }
+        long bought = 0;
+        for (Future<Long> buyer : buyers) {
+            bought += buyer.get();
+        }
+
+        assertTrue(bought <= 10_000);
+        assertEquals(10_000 - bought, stock.available());
+        // What is left can be bought unit by unit, and no more
+        while (stock.tryReserve(1)) {
+            bought++;
+        }
+        assertEquals(10_000, bought);
+        assertEquals(0, stock.available());
+    }
+
+    @Test
+    void reservesAcrossStripesWhenNoStripeHasEnough() {
+        // Two units per stripe
+        StripedStock stock = new StripedStock(8, 4);
+
+        assertTrue(stock.tryReserve(5));
+        assertEquals(3, stock.available());
+        assertFalse(stock.tryReserve(4));
+        assertEquals(3, stock.available());
+        assertTrue(stock.tryReserve(3));
+        assertEquals(0, stock.available());
+        assertFalse(stock.tryReserve(1));
+    }
+
+    @Test
+    void releasedUnitsCanBeReservedAgain() {
+        StripedStock stock = new StripedStock(3, 4);
+
+        assertTrue(stock.tryReserve(3));
+        stock.release(2);
+        assertEquals(2, stock.available());
+        assertFalse(stock.tryReserve(3));
+        assertTrue(stock.tryReserve(2));
+        assertEquals(0, stock.available());
+    }
+}
@@ -0,0 +1,82 @@
+package org.doogleoss.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.doogleoss.dto.UserRegistrationRequest;
+import org.doogleoss.service.UserService;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+/**
+ * Lookups go to the replica, except for users written just before and inside
+ * transactions. The Dev Services database stands in for the replica: it is
+ * not in recovery, so its lag is 0.
+ */
+@QuarkusTest
+@TestProfile(ReadReplicaTest.SameDatabase.class)
+class ReadReplicaTest {
+
+    public static class SameDatabase implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.datasource.replica.active", "true",
+                          "quarkus.datasource.replica.jdbc.url", "${quarkus.datasource.jdbc.url}",
+                          "quarkus.datasource.replica.username", "${quarkus.datasource.username}",
+                          "quarkus.datasource.replica.password", "${quarkus.datasource.password}");
+        }
+    }
+
+    @Inject
+    ReadReplica readReplica;
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void readsItsOwnWritesFromThePrimary() {
+        readReplica.checkLag();
+        assertTrue(readReplica.isRouting());
+        assertEquals(0, readReplica.lagMillis());
+
+        String username = "replica-" + UUID.randomUUID().toString().substring(0, 8);
+        userService.registerUser(new UserRegistrationRequest(username, "First", "Last", username + "@example.com"));
+
+        double primary = reads("primary");
+        double replica = reads("replica");
+        assertEquals(username, userService.getUserByUsername(username).user().username);
+        assertEquals(primary + 1, reads("primary"));
+        assertEquals(replica, reads("replica"));
+    }
+
+    @Test
+    void lookupsOutsideTransactionsUseTheReplica() {
+        readReplica.checkLag();
+        String username = "replica-" + UUID.randomUUID().toString().substring(0, 8);
+
+        double replica = reads("replica");
+        assertNull(readReplica.read(username, em -> null));
+        assertEquals(replica + 1, reads("replica"));
+
+        double primary = reads("primary");
+        QuarkusTransaction.requiringNew().run(() -> readReplica.read(username, em -> null));
+        assertEquals(primary + 1, reads("primary"));
+    }
+
+    private double reads(String datasource) {
+        return registry.get("luxe.db.reads").tag("datasource", datasource).counter().count();
+    }
+}
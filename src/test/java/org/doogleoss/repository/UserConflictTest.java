@@ -0,0 +1,68 @@
+package org.doogleoss.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.UUID;
+
+import org.doogleoss.dto.UserRegistrationRequest;
+import org.doogleoss.dto.UserResponse;
+import org.doogleoss.repository.UserRepository.Conflict;
+import org.doogleoss.service.UserError;
+import org.doogleoss.service.UserService;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * Registration tells a taken username from a taken email with one query,
+ * reporting the username when both are taken.
+ */
+@QuarkusTest
+class UserConflictTest {
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    UserService userService;
+
+    @Test
+    void reportsWhichOfUsernameAndEmailIsTaken() {
+        UserResponse alice = user();
+        UserResponse bob = user();
+
+        assertEquals(Conflict.USERNAME, findConflict(alice.username, "new-" + alice.email));
+        assertEquals(Conflict.EMAIL, findConflict("new-" + alice.username, alice.email));
+        assertEquals(Conflict.USERNAME, findConflict(alice.username, alice.email));
+        // Taken by two different users: still the username
+        assertEquals(Conflict.USERNAME, findConflict(alice.username, bob.email));
+        assertEquals(Conflict.USERNAME, findConflict(bob.username, alice.email));
+        assertEquals(Conflict.NONE, findConflict("new-" + alice.username, "new-" + alice.email));
+    }
+
+    @Test
+    void registrationRefusesTakenUsernameOrEmail() {
+        UserResponse alice = user();
+
+        assertEquals(UserError.USERNAME_EXISTS,
+                     userService.registerUser(request(alice.username, "new-" + alice.email)).error());
+        assertEquals(UserError.EMAIL_EXISTS,
+                     userService.registerUser(request("new-" + alice.username, alice.email)).error());
+    }
+
+    private Conflict findConflict(String username, String email) {
+        return QuarkusTransaction.requiringNew().call(() -> userRepository.findConflict(username, email));
+    }
+
+    private UserResponse user() {
+        String username = "conflict-" + UUID.randomUUID();
+        // Registered, so the existence filter knows the user too
+        return userService.registerUser(request(username, username + "@example.com")).user();
+    }
+
+    private static UserRegistrationRequest request(String username, String email) {
+        return new UserRegistrationRequest(username, "First", "Last", email);
+    }
+}
@@ -0,0 +1,63 @@
+package org.doogleoss.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    static final int INSERTIONS = 100_000;
+
+    @Test
+    void neverForgetsAnAddedValue() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("user-" + i);
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("user-" + i), "user-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsNearTheConfiguredOne() {
+        for (double probability : new double[] {0.01, 0.001}) {
+            BloomFilter filter = new BloomFilter(INSERTIONS, probability);
+            for (int i = 0; i < INSERTIONS; i++) {
+                filter.add("u:user-" + i + "@example.com");
+            }
+
+            int falsePositives = 0;
+            int probes = 200_000;
+            for (int i = 0; i < probes; i++) {
+                if (filter.mightContain("e:other-" + i + "@example.com")) {
+                    falsePositives++;
+                }
+            }
+            double rate = (double) falsePositives / probes;
+            assertTrue(rate < probability * 1.5, "false positive rate " + rate + " for " + probability);
+        }
+    }
+
+    @Test
+    void staysFreeOfFalseNegativesUnderConcurrentAdds() throws Exception {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = thread; i < INSERTIONS; i += threads.length) {
+                    filter.add("user-" + i);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("user-" + i), "user-" + i);
+        }
+    }
+}
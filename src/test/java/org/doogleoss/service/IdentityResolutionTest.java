@@ -0,0 +1,110 @@
+package org.doogleoss.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.doogleoss.dto.ImportReport;
+
+import org.doogleoss.dto.UserResponse;
+import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.metrics.QueryStats;
+import org.doogleoss.repository.UserRepository;
+import org.doogleoss.webauthn.User;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+
+/**
+ * A signed-in passkey identity resolves its profile with a single statement,
+ * and identities created before the profile link are backfilled.
+ */
+@QuarkusTest
+class IdentityResolutionTest {
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    IdentityLinkMigration identityLinkMigration;
+
+    @Inject
+    UserImportService userImportService;
+
+    @Inject
+    QueryStats queryStats;
+
+    @Test
+    @ActivateRequestContext
+    void linkedIdentityResolvesProfileInOneStatement() {
+        String username = createProfileAndIdentity(true);
+
+        int before = queryStats.statements();
+        UserResponse user = userService.getCurrentUser(username).user();
+
+        assertEquals(username, user.username);
+        assertEquals(1, queryStats.statements() - before);
+    }
+
+    @Test
+    void backfillLinksExistingIdentities() {
+        String username = createProfileAndIdentity(false);
+
+        identityLinkMigration.backfill();
+
+        Long profileId = QuarkusTransaction.requiringNew().call(() -> User.findByUsername(username).profile.id);
+        assertEquals(QuarkusTransaction.requiringNew().call(() -> userRepository.findByUsername(username).id), profileId);
+    }
+
+    @Test
+    void importLinksIdentitiesRegisteredBeforeTheProfile() {
+        String username = "identity-" + UUID.randomUUID();
+        QuarkusTransaction.requiringNew().run(() -> {
+            User identity = new User();
+            identity.username = username;
+            identity.persist();
+        });
+
+        String row = "{\"username\":\"" + username + "\",\"firstName\":\"First\",\"lastName\":\"Last\","
+                     + "\"email\":\"" + username + "@example.com\"}\n";
+        ImportReport report = userImportService.importUsers(
+            new ByteArrayInputStream(row.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.NDJSON);
+
+        assertEquals(1, report.imported);
+        Long profileId = QuarkusTransaction.requiringNew().call(() -> User.findByUsername(username).profile.id);
+        assertEquals(QuarkusTransaction.requiringNew().call(() -> userRepository.findByUsername(username).id), profileId);
+    }
+
+    @Test
+    @ActivateRequestContext
+    void unlinkedIdentityFallsBackToUsername() {
+        String username = createProfileAndIdentity(false);
+
+        int before = queryStats.statements();
+        UserResponse user = userService.getCurrentUser(username).user();
+
+        assertEquals(username, user.username);
+        assertEquals(2, queryStats.statements() - before);
+    }
+
+    private String createProfileAndIdentity(boolean linked) {
+        String username = "identity-" + UUID.randomUUID();
+        QuarkusTransaction.requiringNew().run(() -> {
+            LuxeUser profile = new LuxeUser(username, "First", "Last", username + "@example.com");
+            userRepository.persist(profile);
+            User identity = new User();
+            identity.username = username;
+            identity.profile = linked ? profile : null;
+            identity.persist();
+        });
+        return username;
+    }
+}
@@ -0,0 +1,128 @@
+package org.doogleoss.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.elytron.security.common.BcryptUtil;
+
+class PasswordHasherTest {
+
+    final PasswordHasher hasher = new PasswordHasher();
+    final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void init() {
+        hasher.poolSize = Optional.of(1);
+        hasher.queueSize = 1;
+        hasher.configuredCost = Optional.of(4);
+        hasher.targetHashTime = Duration.ofMillis(250);
+        hasher.minCost = 4;
+        hasher.maxCost = 6;
+        hasher.registry = new SimpleMeterRegistry();
+        hasher.executor = ManagedExecutor.builder().build();
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        if (hasher.pool != null) {
+            hasher.onStop(null);
+        }
+        hasher.executor.shutdownNow();
+    }
+
+    @Test
+    void rejectsRightAwayWhenThePoolAndQueueAreFull() {
+        hasher.onStart(null);
+        // One task running and one queued fill the pool
+        hasher.pool.execute(this::awaitRelease);
+        hasher.pool.execute(this::awaitRelease);
+
+        assertThrows(SaturatedException.class, () -> hasher.hash("secret"));
+        assertThrows(SaturatedException.class, () -> hasher.matches("secret", BcryptUtil.bcryptHash("secret", 4)));
+        hasher.hashAsync("secret", passwordHash -> {
+            throw new AssertionError("Skipped when saturated");
+        });
+
+        assertEquals(3, hasher.registry.get("luxe.password.rejected").counter().count());
+    }
+
+    @Test
+    void hashesAndVerifiesAtTheConfiguredCost() {
+        hasher.onStart(null);
+
+        String passwordHash = hasher.hash("secret");
+
+        assertEquals(4, PasswordHasher.costOf(passwordHash));
+        assertTrue(hasher.matches("secret", passwordHash));
+        assertFalse(hasher.matches("other", passwordHash));
+        assertFalse(hasher.matches("", passwordHash));
+        assertFalse(hasher.matches("secret", null));
+    }
+
+    @Test
+    void calibratesTheCostWithinItsBounds() {
+        hasher.configuredCost = Optional.empty();
+        hasher.targetHashTime = Duration.ofHours(1);
+        hasher.onStart(null);
+        assertEquals(6, hasher.cost());
+        hasher.onStop(null);
+
+        hasher.targetHashTime = Duration.ZERO;
+        hasher.onStart(null);
+        assertEquals(4, hasher.cost());
+    }
+
+    @Test
+    void rehashesHashesOfALowerCostOffThePool() throws Exception {
+        hasher.configuredCost = Optional.of(5);
+        hasher.onStart(null);
+        assertTrue(hasher.needsRehash(BcryptUtil.bcryptHash("secret", 4)));
+        assertFalse(hasher.needsRehash(hasher.hash("secret")));
+        // A pod calibrated lower leaves the stronger hashes of other pods alone
+        assertFalse(hasher.needsRehash(BcryptUtil.bcryptHash("secret", 6)));
+
+        CompletableFuture<String> rehashed = new CompletableFuture<>();
+        hasher.hashAsync("secret", passwordHash -> {
+            if (Thread.currentThread().getName().startsWith("password-hasher-")) {
+                rehashed.completeExceptionally(new AssertionError("Handed over on a hashing thread"));
+            } else {
+                rehashed.complete(passwordHash);
+            }
+        });
+
+        String passwordHash = rehashed.get(5, TimeUnit.SECONDS);
+        assertFalse(hasher.needsRehash(passwordHash));
+        assertTrue(hasher.matches("secret", passwordHash));
+    }
+
+    @Test
+    void readsTheCostOfModularCryptHashes() {
+        assertEquals(12, PasswordHasher.costOf("$2a$12$abcdefghijklmnopqrstuv"));
+        assertEquals(-1, PasswordHasher.costOf("plain"));
+        assertEquals(-1, PasswordHasher.costOf("$2a$xx$abcdefghijklmnopqrstuv"));
+        assertEquals(-1, PasswordHasher.costOf(null));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
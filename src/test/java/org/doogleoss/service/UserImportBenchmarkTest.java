@@ -0,0 +1,119 @@
+package org.doogleoss.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.doogleoss.dto.ImportReport;
+import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.repository.UserRepository;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.elytron.security.common.BcryptUtil;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.TestSecurity;
+import jakarta.inject.Inject;
+
+/**
+ * Sustained rows per second of {@code POST /api/users/import} for NDJSON and
+ * CSV, against the one-transaction-per-user path that registration takes.
+ */
+@QuarkusTest
+@Tag("benchmark")
+@TestSecurity(user = "root", roles = "admin")
+class UserImportBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(UserImportBenchmarkTest.class);
+
+    static final int ROWS = 100_000;
+    static final int BASELINE_ROWS = 5_000;
+
+    // Hashed once: the import stores hashes as given, so their cost does not matter here
+    static final String PASSWORD_HASH = BcryptUtil.bcryptHash("secret", 4);
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @TestHTTPResource("/api/users/import")
+    URL importUrl;
+
+    @Test
+    void importNdjson() throws Exception {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        StringBuilder body = new StringBuilder(ROWS * 160);
+        for (int i = 0; i < ROWS; i++) {
+            body.append("{\"username\":\"").append(prefix).append("-nd-").append(i)
+                .append("\",\"firstName\":\"First\",\"lastName\":\"Last\",\"email\":\"")
+                .append(prefix).append("-nd-").append(i).append("@example.com\",\"passwordHash\":\"")
+                .append(PASSWORD_HASH).append("\"}\n");
+        }
+        report("NDJSON", post("application/x-ndjson", body));
+    }
+
+    @Test
+    void importCsv() throws Exception {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        StringBuilder body = new StringBuilder(ROWS * 120);
+        body.append("username,firstName,lastName,email,passwordHash\n");
+        for (int i = 0; i < ROWS; i++) {
+            body.append(prefix).append("-csv-").append(i).append(",First,Last,")
+                .append(prefix).append("-csv-").append(i).append("@example.com,")
+                .append(PASSWORD_HASH).append('\n');
+        }
+        report("CSV", post("text/csv", body));
+    }
+
+    @Test
+    void transactionPerUser() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        long start = System.nanoTime();
+        for (int i = 0; i < BASELINE_ROWS; i++) {
+            String username = prefix + "-tx-" + i;
+            String email = username + "@example.com";
+            QuarkusTransaction.requiringNew().run(() -> {
+                // What registration does, minus the password hashing
+                if (userRepository.findConflict(username, email) == UserRepository.Conflict.NONE) {
+                    LuxeUser user = new LuxeUser(username, "First", "Last", email);
+                    user.password = PASSWORD_HASH;
+                    userRepository.persist(user);
+                }
+            });
+        }
+        long elapsed = System.nanoTime() - start;
+        LOG.infof("transaction per user: %,d rows in %,d ms, %,.0f rows/s",
+                  BASELINE_ROWS, TimeUnit.NANOSECONDS.toMillis(elapsed), BASELINE_ROWS / (elapsed / 1e9));
+    }
+
+    private ImportReport post(String contentType, StringBuilder body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(importUrl.toString()))
+                                         .header("Content-Type", contentType)
+                                         .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                                         .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readValue(response.body(), ImportReport.class);
+    }
+
+    private static void report(String format, ImportReport report) {
+        assertEquals(ROWS, report.imported);
+        assertEquals(0, report.failed);
+        LOG.infof("bulk import %s: %,d rows in %,d ms, %,.0f rows/s",
+                  format, report.imported, report.elapsedMillis, report.rowsPerSecond);
+    }
+}
@@ -0,0 +1,69 @@
+package org.doogleoss.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.doogleoss.dto.ImportReport;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * Bad rows fail on their own, with their line number, and leave the rest of
+ * the import going.
+ */
+@QuarkusTest
+class UserImportServiceTest {
+
+    @Inject
+    UserImportService userImportService;
+
+    @Test
+    void refusedRowDoesNotHoldItsUsername() {
+        String prefix = "import-" + UUID.randomUUID();
+        ImportReport report = importNdjson(
+            row(prefix + "-a", prefix + "-a@example.com"),
+            // Refused for the email of the first row
+            row(prefix + "-b", prefix + "-a@example.com"),
+            // So its username is still free
+            row(prefix + "-b", prefix + "-b@example.com"));
+
+        assertEquals(2, report.imported);
+        assertEquals(List.of("2: Email already exists"), failures(report));
+    }
+
+    @Test
+    void nullLineIsAMalformedRow() {
+        String prefix = "import-" + UUID.randomUUID();
+        ImportReport report = importNdjson(
+            row(prefix + "-a", prefix + "-a@example.com"),
+            "null",
+            row(prefix + "-b", prefix + "-b@example.com"));
+
+        assertEquals(2, report.imported);
+        assertEquals(List.of("2: Malformed row: not a JSON object"), failures(report));
+    }
+
+    private ImportReport importNdjson(String... rows) {
+        String ndjson = String.join("\n", rows) + "\n";
+        ImportReport report = userImportService.importUsers(
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.NDJSON);
+        assertNull(report.aborted);
+        return report;
+    }
+
+    private static List<String> failures(ImportReport report) {
+        return report.failures.stream().map(failure -> failure.line + ": " + failure.error).toList();
+    }
+
+    private static String row(String username, String email) {
+        return "{\"username\":\"" + username + "\",\"firstName\":\"First\",\"lastName\":\"Last\",\"email\":\""
+               + email + "\"}";
+    }
+}
@@ -0,0 +1,152 @@
+package org.doogleoss.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import org.doogleoss.bench.Latencies;
+import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.repository.UserRepository;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+
+/**
+ * Compares the managed-entity read path (load {@link LuxeUser}, copy into a
+ * response) with the read-only projection path now used by
+ * {@code /api/users/{id}} and {@code /api/users/me}.
+ * Reports latency and bytes allocated per lookup on the calling thread.
+ */
+@QuarkusTest
+@Tag("benchmark")
+class UserReadPathBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(UserReadPathBenchmarkTest.class);
+
+    static final int USERS = 1_000;
+    static final int WARMUP_OPERATIONS = 5_000;
+    static final int OPERATIONS = 50_000;
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    UserRepository userRepository;
+
+    @TestHTTPResource("/api/users")
+    URL usersUrl;
+
+    List<Long> ids = new ArrayList<>();
+    List<String> usernames = new ArrayList<>();
+
+    @BeforeEach
+    void seedUsers() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < USERS; i++) {
+                LuxeUser user = new LuxeUser(prefix + "-user-" + i, "First", "Last", prefix + "-" + i + "@example.com");
+                userRepository.persist(user);
+                ids.add(user.id);
+                usernames.add(user.username);
+            }
+        });
+    }
+
+    @Test
+    @ActivateRequestContext
+    void lookupById() {
+        measure("entity     by id", i -> {
+            userService.toUserResponse(userRepository.findById(ids.get(i % USERS)));
+            // one persistence context per request in production, so no first-level cache hits
+            userRepository.getEntityManager().clear();
+        });
+        measure("projection by id", i -> {
+            userService.getUserById(ids.get(i % USERS));
+            userRepository.getEntityManager().clear();
+        });
+    }
+
+    @Test
+    @ActivateRequestContext
+    void lookupByUsername() {
+        measure("entity     by username", i -> {
+            userService.toUserResponse(userRepository.findByUsername(usernames.get(i % USERS)));
+            userRepository.getEntityManager().clear();
+        });
+        measure("projection by username", i -> {
+            userService.getUserByUsername(usernames.get(i % USERS));
+            userRepository.getEntityManager().clear();
+        });
+    }
+
+    @Test
+    void getUserByIdEndpoint() throws Exception {
+        measureEndpoint("GET /api/users/{id}", 200, i -> ids.get(i % USERS));
+    }
+
+    /**
+     * Not found is answered with a pre-serialized body, without an exception: it should cost no more than found
+     */
+    @Test
+    void getMissingUserByIdEndpoint() throws Exception {
+        long missing = -1 - ids.get(0);
+        measureEndpoint("GET /api/users/{id}, found    ", 200, i -> ids.get(i % USERS));
+        measureEndpoint("GET /api/users/{id}, not found", 404, i -> missing - i % USERS);
+    }
+
+    private void measureEndpoint(String name, int status, IntFunction<Long> id) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            get(client, id.apply(i));
+        }
+        Latencies latencies = new Latencies(OPERATIONS / 5);
+        latencies.start();
+        for (int i = 0; i < latencies.size(); i++) {
+            long start = System.nanoTime();
+            assertEquals(status, get(client, id.apply(i)));
+            latencies.record(i, System.nanoTime() - start);
+        }
+        latencies.finish();
+        LOG.info(latencies.summary(name));
+    }
+
+    private int get(HttpClient client, Long id) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(usersUrl + "/" + id)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void measure(String name, IntConsumer lookup) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            lookup.accept(i);
+        }
+        Latencies latencies = new Latencies(OPERATIONS);
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        latencies.start();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long start = System.nanoTime();
+            lookup.accept(i);
+            latencies.record(i, System.nanoTime() - start);
+        }
+        latencies.finish();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        LOG.infof("%s, %,d bytes allocated per lookup", latencies.summary(name), allocated / OPERATIONS);
+    }
+}
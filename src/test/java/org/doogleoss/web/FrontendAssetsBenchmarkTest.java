@@ -0,0 +1,85 @@
+package org.doogleoss.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.doogleoss.bench.Latencies;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Loads the built frontend the way a browser without a cache does: the
+ * entry point, then every script and stylesheet it links. Reports the bytes
+ * on the wire per page load and the time to first byte of each file.
+ * {@link UncompressedFrontendAssetsBenchmarkTest} runs the same loads with
+ * the files served by the default static resource handler.
+ */
+@QuarkusTest
+@Tag("benchmark")
+class FrontendAssetsBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(FrontendAssetsBenchmarkTest.class);
+    private static final Pattern LINKED = Pattern.compile("(?:src|href)=\"(/assets/[^\"]+)\"");
+
+    static final int PAGE_LOADS = 200;
+
+    @TestHTTPResource("/")
+    URL rootUrl;
+
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void pageLoads() throws Exception {
+        List<String> files = files();
+        Latencies timeToFirstByte = new Latencies(PAGE_LOADS * files.size());
+        long bytes = 0;
+        timeToFirstByte.start();
+        for (int load = 0; load < PAGE_LOADS; load++) {
+            for (int i = 0; i < files.size(); i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(rootUrl.toString()).resolve(files.get(i)))
+                                                 .header("Accept-Encoding", "br, gzip")
+                                                 .build();
+                long start = System.nanoTime();
+                long[] firstByte = new long[1];
+                // Called once the status line and headers have arrived
+                HttpResponse<byte[]> response = client.send(request, info -> {
+                    firstByte[0] = System.nanoTime();
+                    return HttpResponse.BodySubscribers.ofByteArray();
+                });
+                assertEquals(200, response.statusCode());
+                timeToFirstByte.record(load * files.size() + i, firstByte[0] - start);
+                bytes += response.body().length;
+            }
+        }
+        timeToFirstByte.finish();
+        LOG.info(timeToFirstByte.summary(getClass().getSimpleName() + " time to first byte, "
+                                         + files.size() + " files"));
+        LOG.infof("%s: %,d bytes transferred per page load", getClass().getSimpleName(), bytes / PAGE_LOADS);
+    }
+
+    private List<String> files() throws Exception {
+        String index = client.send(HttpRequest.newBuilder(URI.create(rootUrl.toString())).build(),
+                                   HttpResponse.BodyHandlers.ofString()).body();
+        List<String> files = new ArrayList<>(List.of("/"));
+        Matcher linked = LINKED.matcher(index);
+        while (linked.find()) {
+            files.add(linked.group(1));
+        }
+        assumeTrue(files.size() > 1, "The frontend has not been built");
+        return files;
+    }
+}
@@ -0,0 +1,188 @@
+package org.doogleoss.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.doogleoss.bench.Latencies;
+import org.doogleoss.entity.LuxeUser;
+import org.doogleoss.repository.UserRepository;
+import org.doogleoss.service.PasswordHasher;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+/**
+ * Shoppers log in through {@code POST /api/users/login}, each from its own
+ * address, first alone and then during a credential-stuffing burst: bots on
+ * a few addresses trying wrong passwords on other accounts as fast as they
+ * can. Reports the shoppers' login latency and how many logins went
+ * through, and what happened to the bots' requests.
+ * {@link LoginUnderAttackWithoutAdmissionBenchmarkTest} runs it with
+ * {@link AdmissionControl} disabled.
+ */
+@QuarkusTest
+@TestProfile(LoginUnderAttackBenchmarkTest.Admission.class)
+@Tag("benchmark")
+class LoginUnderAttackBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(LoginUnderAttackBenchmarkTest.class);
+
+    static final String PASSWORD = "correct-horse-battery";
+    static final int SHOPPERS = 100;
+    static final int LOGINS_PER_SHOPPER = 3;
+    static final long THINK_TIME_MILLIS = 2_000;
+    static final int VICTIMS = 1_000;
+    static final int BOTS = 64;
+    static final int BOT_ADDRESSES = 16;
+
+    public static class Admission implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // Every virtual client sends its own address in X-Forwarded-For
+            return Map.of("luxe.admission.enabled", "true",
+                          "quarkus.http.proxy.proxy-address-forwarding", "true",
+                          "quarkus.http.proxy.allow-x-forwarded", "true");
+        }
+    }
+
+    @TestHTTPResource("/api/users/login")
+    URL loginUrl;
+
+    @ConfigProperty(name = "luxe.admission.enabled")
+    boolean admissionEnabled;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    PasswordHasher passwordHasher;
+
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void shoppersDuringCredentialStuffing() throws Exception {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        seed(prefix);
+
+        Shoppers quiet = shoppers(prefix + "-quiet", "192.0.2.");
+        LOG.info(quiet.latencies.summary("shopper logins, no attack"));
+
+        AtomicBoolean attacking = new AtomicBoolean(true);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Shoppers attacked;
+        try (ExecutorService bots = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < BOTS; i++) {
+                String address = "10.66.0." + (i % BOT_ADDRESSES);
+                bots.execute(() -> {
+                    while (attacking.get()) {
+                        String victim = prefix + "-victim-" + ThreadLocalRandom.current().nextInt(VICTIMS);
+                        try {
+                            if (login(address, victim, "guess-" + attempts.incrementAndGet()) == 429) {
+                                rejected.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            // Bots do not care
+                        }
+                    }
+                });
+            }
+            attacked = shoppers(prefix + "-attacked", "198.51.100.");
+            attacking.set(false);
+        }
+        LOG.info(attacked.latencies.summary("shopper logins, under attack"));
+        LOG.infof("Admission %s: shoppers logged in %d/%d times without attack, %d/%d under attack;"
+                  + " bots sent %,d attempts, %,d rejected with 429",
+                  admissionEnabled ? "enabled" : "disabled", quiet.succeeded.get(), quiet.latencies.size(),
+                  attacked.succeeded.get(), attacked.latencies.size(), attempts.get(), rejected.get());
+        assertEquals(quiet.latencies.size(), quiet.succeeded.get());
+        if (admissionEnabled) {
+            assertEquals(attacked.latencies.size(), attacked.succeeded.get());
+        }
+    }
+
+    record Shoppers(Latencies latencies, AtomicInteger succeeded) {
+    }
+
+    /**
+     * @param prefix of the shoppers' usernames; each run has its own shoppers and addresses
+     */
+    private Shoppers shoppers(String prefix, String network) throws InterruptedException {
+        Shoppers shoppers = new Shoppers(new Latencies(SHOPPERS * LOGINS_PER_SHOPPER), new AtomicInteger());
+        AtomicInteger next = new AtomicInteger();
+        shoppers.latencies().start();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < SHOPPERS; i++) {
+                int shopper = i;
+                executor.execute(() -> {
+                    String address = network + shopper;
+                    for (int j = 0; j < LOGINS_PER_SHOPPER; j++) {
+                        int login = next.getAndIncrement();
+                        long start = System.nanoTime();
+                        try {
+                            if (login(address, prefix + "-shopper-" + shopper, PASSWORD) == 200) {
+                                shoppers.succeeded().incrementAndGet();
+                            }
+                            shoppers.latencies().record(login, System.nanoTime() - start);
+                            Thread.sleep(THINK_TIME_MILLIS);
+                        } catch (Exception e) {
+                            shoppers.latencies().record(login, System.nanoTime() - start);
+                        }
+                    }
+                });
+            }
+        }
+        shoppers.latencies().finish();
+        return shoppers;
+    }
+
+    private int login(String address, String username, String password) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(loginUrl.toString()))
+                                         .header("Content-Type", "application/json")
+                                         .header("X-Forwarded-For", address)
+                                         .POST(HttpRequest.BodyPublishers.ofString(body))
+                                         .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void seed(String prefix) {
+        // One bcrypt hash for everyone: seeding should not take as long as the attack
+        String hash = passwordHasher.hash(PASSWORD);
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < SHOPPERS; i++) {
+                persist(prefix + "-quiet-shopper-" + i, hash);
+                persist(prefix + "-attacked-shopper-" + i, hash);
+            }
+            for (int i = 0; i < VICTIMS; i++) {
+                persist(prefix + "-victim-" + i, hash);
+            }
+        });
+    }
+
+    private void persist(String username, String hash) {
+        LuxeUser user = new LuxeUser(username, "First", "Last", username + "@example.com");
+        user.password = hash;
+        userRepository.persist(user);
+    }
+}
@@ -0,0 +1,25 @@
+package org.doogleoss.web;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(LoginUnderAttackWithoutAdmissionBenchmarkTest.NoAdmission.class)
+@Tag("benchmark")
+class LoginUnderAttackWithoutAdmissionBenchmarkTest extends LoginUnderAttackBenchmarkTest {
+    // Same shoppers and bots, every attempt reaching the database and bcrypt
+
+    public static class NoAdmission implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("luxe.admission.enabled", "false",
+                          "quarkus.http.proxy.proxy-address-forwarding", "true",
+                          "quarkus.http.proxy.allow-x-forwarded", "true");
+        }
+    }
+}
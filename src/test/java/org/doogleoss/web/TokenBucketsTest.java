@@ -0,0 +1,92 @@
+package org.doogleoss.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketsTest {
+
+    static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    // One token per second, three at once
+    final TokenBuckets buckets = new TokenBuckets(60, MINUTE, 3, 100, 1);
+
+    @Test
+    void admitsTheBurstThenOneRequestPerInterval() {
+        assertEquals(0, buckets.tryAcquire("alice", 0));
+        assertEquals(0, buckets.tryAcquire("alice", 0));
+        assertEquals(0, buckets.tryAcquire("alice", 0));
+        assertEquals(SECOND, buckets.tryAcquire("alice", 0));
+        assertEquals(SECOND / 2, buckets.tryAcquire("alice", SECOND / 2));
+
+        assertEquals(0, buckets.tryAcquire("alice", SECOND));
+        assertEquals(SECOND, buckets.tryAcquire("alice", SECOND));
+        // A full bucket again: the whole burst
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("alice", 10 * SECOND));
+        }
+    }
+
+    @Test
+    void keepsWorkingWhenTheClockWraps() {
+        long now = Long.MAX_VALUE - SECOND / 2;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("alice", now));
+        }
+        assertEquals(SECOND, buckets.tryAcquire("alice", now));
+
+        // One second later the clock has wrapped to negative values
+        long later = now + SECOND;
+        assertEquals(0, buckets.tryAcquire("alice", later));
+        assertEquals(SECOND, buckets.tryAcquire("alice", later));
+        assertEquals(1, buckets.evictIdle(later));
+        assertEquals(0, buckets.evictIdle(later + 3 * SECOND));
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("alice", 0);
+        }
+
+        assertEquals(SECOND, buckets.tryAcquire("alice", 0));
+        assertEquals(0, buckets.tryAcquire("bob", 0));
+    }
+
+    @Test
+    void evictsOnlyFullBuckets() {
+        buckets.tryAcquire("alice", 0);
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("bob", 0);
+        }
+
+        assertEquals(2, buckets.evictIdle(0));
+        assertEquals(1, buckets.evictIdle(SECOND));
+        assertEquals(0, buckets.evictIdle(3 * SECOND));
+        // Nothing was lost: the evicted bucket of bob was full
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("bob", 3 * SECOND));
+        }
+    }
+
+    @Test
+    void newKeysShareTheOverflowBucketWhenFull() {
+        TokenBuckets bounded = new TokenBuckets(60, MINUTE, 3, 4, 1);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, bounded.tryAcquire("client-" + i, 0));
+        }
+
+        for (int i = 4; i < 7; i++) {
+            assertEquals(0, bounded.tryAcquire("client-" + i, 0));
+        }
+        assertEquals(SECOND, bounded.tryAcquire("client-7", 0));
+        assertEquals(4, bounded.size());
+
+        // Once the first buckets are full again, a sweep makes room for new keys
+        assertEquals(0, bounded.tryAcquire("client-8", SECOND));
+        assertEquals(1, bounded.size());
+    }
+}
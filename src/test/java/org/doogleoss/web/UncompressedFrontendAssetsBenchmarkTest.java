@@ -0,0 +1,23 @@
+package org.doogleoss.web;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(UncompressedFrontendAssetsBenchmarkTest.DefaultStaticResources.class)
+@Tag("benchmark")
+class UncompressedFrontendAssetsBenchmarkTest extends FrontendAssetsBenchmarkTest {
+    // Same page loads without PrecompressedAssets
+
+    public static class DefaultStaticResources implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("luxe.assets.enabled", "false");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.doogleoss.webauthn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.doogleoss.repository.ReadReplica;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CounterWriteBehindTest {
+
+    final List<Map<String, Long>> written = new CopyOnWriteArrayList<>();
+    final CountDownLatch writing = new CountDownLatch(1);
+    volatile CountDownLatch release = new CountDownLatch(0);
+    final AtomicInteger flushes = new AtomicInteger();
+
+    final CounterWriteBehind writeBehind = new CounterWriteBehind() {
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+            super.flush();
+        }
+
+        @Override
+        void write(List<Map.Entry<String, Long>> batch) {
+            Map<String, Long> counters = new HashMap<>();
+            batch.forEach(entry -> counters.put(entry.getKey(), entry.getValue()));
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(counters);
+        }
+    };
+
+    @BeforeEach
+    void init() {
+        writeBehind.enabled = true;
+        writeBehind.maxPending = 3;
+        writeBehind.executor = ManagedExecutor.builder().maxAsync(4).build();
+        writeBehind.readReplica = new ReadReplica();
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        writeBehind.executor.shutdownNow();
+    }
+
+    @Test
+    void coalescesUpdatesKeepingTheHighestCounter() {
+        writeBehind.record("a", 5);
+        writeBehind.record("a", 7);
+        writeBehind.record("a", 6);
+        writeBehind.record("b", 1);
+
+        writeBehind.flush();
+
+        assertEquals(List.of(Map.of("a", 7L, "b", 1L)), written);
+    }
+
+    @Test
+    void pendingCountersAreReadableUntilWritten() {
+        writeBehind.record("a", 5);
+        writeBehind.record("a", 3);
+
+        assertEquals(5, writeBehind.pendingCounter("a"));
+        assertEquals(-1, writeBehind.pendingCounter("b"));
+
+        writeBehind.flush();
+        assertEquals(-1, writeBehind.pendingCounter("a"));
+    }
+
+    @Test
+    void counterRaisedDuringAFlushStaysPending() throws Exception {
+        release = new CountDownLatch(1);
+        writeBehind.record("a", 5);
+        ExecutorService flusher = Executors.newSingleThreadExecutor();
+        try {
+            flusher.submit(writeBehind::flush);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            writeBehind.record("a", 6);
+            release.countDown();
+        } finally {
+            flusher.shutdown();
+            assertTrue(flusher.awaitTermination(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(6, writeBehind.pendingCounter("a"));
+        writeBehind.flush();
+        assertEquals(List.of(Map.of("a", 5L), Map.of("a", 6L)), written);
+    }
+
+    @Test
+    void goingOverMaxPendingSchedulesOneFlush() throws Exception {
+        release = new CountDownLatch(1);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                callers.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 0; i < 50; i++) {
+                        writeBehind.record("credential-" + thread + "-" + i, i);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Every caller was over max-pending until the first flush ran, none queued another
+        release.countDown();
+        writeBehind.executor.shutdown();
+        assertTrue(writeBehind.executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, flushes.get());
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    void shutdownWritesEverythingPending() {
+        writeBehind.record("a", 1);
+        writeBehind.record("b", 2);
+
+        writeBehind.onShutdown(null);
+
+        assertEquals(List.of(Map.of("a", 1L, "b", 2L)), new ArrayList<>(written));
+        assertEquals(-1, writeBehind.pendingCounter("a"));
+        assertEquals(-1, writeBehind.pendingCounter("b"));
+    }
+}
@@ -0,0 +1,89 @@
+package org.doogleoss.webauthn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord.RequiredPersistedData;
+
+class CredentialCacheTest {
+
+    CredentialCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CredentialCache();
+        cache.maximumSize = 100;
+        cache.expireAfterWrite = Duration.ofMinutes(5);
+        cache.presenceExpireAfterWrite = Duration.ofSeconds(30);
+        cache.init();
+    }
+
+    @Test
+    void counterUpdateRefreshesCachedCredential() {
+        cache.putCredential(cache.stamp(), credential("cred", 1));
+
+        cache.credentialChanged(new CredentialChanged(null, "cred", 7));
+
+        assertEquals(7, cache.getCredential("cred").counter());
+    }
+
+    @Test
+    void staleCounterUpdateKeepsTheHigherCounter() {
+        cache.putCredential(cache.stamp(), credential("cred", 1));
+
+        cache.credentialChanged(new CredentialChanged(null, "cred", 9));
+        cache.credentialChanged(new CredentialChanged(null, "cred", 8));
+
+        assertEquals(9, cache.getCredential("cred").counter());
+    }
+
+    @Test
+    void loadRacingWithCounterUpdateIsDropped() {
+        long stamp = cache.stamp();
+        // the update commits while the loader still holds the old row
+        cache.credentialChanged(new CredentialChanged(null, "cred", 7));
+        cache.putCredential(stamp, credential("cred", 1));
+
+        assertNull(cache.getCredential("cred"));
+    }
+
+    @Test
+    void storeInvalidatesUsernameEntry() {
+        cache.putCredentialsOf("alice", cache.stamp(), List.of(credential("cred", 0)));
+        assertEquals(1, cache.getCredentialsOf("alice").size());
+
+        cache.credentialChanged(new CredentialChanged("alice", "other", 0));
+
+        assertNull(cache.getCredentialsOf("alice"));
+    }
+
+    @Test
+    void credentialsOfUserAreCachedById() {
+        cache.putCredentialsOf("alice", cache.stamp(), List.of(credential("cred", 3), credential("other", 4)));
+
+        assertEquals(2, cache.getCredentialsOf("alice").size());
+        assertEquals(4, cache.getCredential("other").counter());
+    }
+
+    @Test
+    void userLoadRacingWithCounterUpdateKeepsOnlyUnchangedCredentials() {
+        long stamp = cache.stamp();
+        cache.credentialChanged(new CredentialChanged(null, "cred", 7));
+        cache.putCredentialsOf("alice", stamp, List.of(credential("cred", 1), credential("other", 4)));
+
+        assertNull(cache.getCredential("cred"));
+        assertEquals(4, cache.getCredential("other").counter());
+        assertNull(cache.getCredentialsOf("alice"));
+    }
+
+    private static RequiredPersistedData credential(String credentialId, long counter) {
+        return new RequiredPersistedData("alice", credentialId, UUID.randomUUID(), new byte[0], -7, counter);
+    }
+}
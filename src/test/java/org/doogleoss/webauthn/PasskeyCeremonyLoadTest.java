@@ -0,0 +1,203 @@
+package org.doogleoss.webauthn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URL;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.doogleoss.bench.Latencies;
+import org.doogleoss.bench.SoftwareAuthenticator;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+/**
+ * Full passkey ceremonies over HTTP: every virtual user registers a passkey
+ * held by a {@link SoftwareAuthenticator}, then logs in with it repeatedly.
+ * Reports throughput and p50/p99/p99.9 latency for each of the four requests
+ * of the ceremonies. The provider behind them is {@link MyWebAuthnSetup} on
+ * the Dev Services database.
+ */
+@QuarkusTest
+@TestProfile(PasskeyCeremonyLoadTest.LocalRelyingParty.class)
+@Tag("benchmark")
+class PasskeyCeremonyLoadTest {
+
+    private static final Logger LOG = Logger.getLogger(PasskeyCeremonyLoadTest.class);
+
+    static final int VIRTUAL_USERS = 200;
+    static final int LOGINS_PER_USER = 20;
+    static final int WARMUP_VIRTUAL_USERS = 50;
+
+    public static class LocalRelyingParty implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            // The test server is not served under luxestore.localhost
+            return Map.of("quarkus.webauthn.relying-party.id", "localhost",
+                          "quarkus.webauthn.origins", "http://localhost:${quarkus.http.test-port:8081}");
+        }
+    }
+
+    @TestHTTPResource("/")
+    URL root;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    /**
+     * Latencies of one run, one buffer per ceremony step
+     */
+    static class Steps {
+        final Latencies registerOptions;
+        final Latencies register;
+        final Latencies loginOptions;
+        final Latencies login;
+        final AtomicInteger registrations = new AtomicInteger();
+        final AtomicInteger logins = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+
+        Steps(int virtualUsers) {
+            registerOptions = new Latencies(virtualUsers);
+            register = new Latencies(virtualUsers);
+            loginOptions = new Latencies(virtualUsers * LOGINS_PER_USER);
+            login = new Latencies(virtualUsers * LOGINS_PER_USER);
+        }
+
+        List<Latencies> all() {
+            return List.of(registerOptions, register, loginOptions, login);
+        }
+    }
+
+    @Test
+    void registerAndLogin() throws Exception {
+        run(WARMUP_VIRTUAL_USERS);
+        Steps steps = run(VIRTUAL_USERS);
+
+        LOG.infof("%d virtual users, %d logins each", VIRTUAL_USERS, LOGINS_PER_USER);
+        LOG.info(steps.registerOptions.summary("GET  /q/webauthn/register-options-challenge"));
+        LOG.info(steps.register.summary("POST /q/webauthn/register"));
+        LOG.info(steps.loginOptions.summary("GET  /q/webauthn/login-options-challenge"));
+        LOG.info(steps.login.summary("POST /q/webauthn/login"));
+        assertEquals(0, steps.failures.get());
+    }
+
+    private Steps run(int virtualUsers) throws InterruptedException {
+        Steps steps = new Steps(virtualUsers);
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        steps.all().forEach(Latencies::start);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < virtualUsers; i++) {
+                String username = prefix + "-passkey-" + i;
+                executor.execute(() -> {
+                    try {
+                        virtualUser(username, steps);
+                    } catch (Exception e) {
+                        steps.failures.incrementAndGet();
+                        LOG.warnf("Ceremony of %s failed: %s", username, e.getMessage());
+                    }
+                });
+            }
+        }
+        steps.all().forEach(Latencies::finish);
+        return steps;
+    }
+
+    private void virtualUser(String username, Steps steps) throws Exception {
+        SoftwareAuthenticator authenticator = new SoftwareAuthenticator(origin());
+        // Carries the challenge cookies between options and response, like a browser
+        Map<String, String> cookies = new HashMap<>();
+
+        int registration = steps.registrations.getAndIncrement();
+        long start = System.nanoTime();
+        JsonNode creationOptions = getJson("q/webauthn/register-options-challenge?username=" + encode(username), cookies);
+        steps.registerOptions.record(registration, System.nanoTime() - start);
+
+        String attestation = authenticator.register(creationOptions).toString();
+        start = System.nanoTime();
+        postJson("q/webauthn/register?username=" + encode(username), attestation, cookies);
+        steps.register.record(registration, System.nanoTime() - start);
+
+        for (int i = 0; i < LOGINS_PER_USER; i++) {
+            int login = steps.logins.getAndIncrement();
+            start = System.nanoTime();
+            JsonNode requestOptions = getJson("q/webauthn/login-options-challenge?username=" + encode(username), cookies);
+            steps.loginOptions.record(login, System.nanoTime() - start);
+
+            String assertion = authenticator.login(requestOptions).toString();
+            start = System.nanoTime();
+            postJson("q/webauthn/login", assertion, cookies);
+            steps.login.record(login, System.nanoTime() - start);
+        }
+    }
+
+    private JsonNode getJson(String path, Map<String, String> cookies) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(root.toURI().resolve(path))
+                                                 .header("Accept", "application/json")
+                                                 .GET();
+        return objectMapper.readTree(send(request, cookies));
+    }
+
+    private void postJson(String path, String body, Map<String, String> cookies) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(root.toURI().resolve(path))
+                                                 .header("Accept", "application/json")
+                                                 .header("Content-Type", "application/json")
+                                                 .POST(HttpRequest.BodyPublishers.ofString(body));
+        send(request, cookies);
+    }
+
+    private String send(HttpRequest.Builder request, Map<String, String> cookies) throws Exception {
+        if (!cookies.isEmpty()) {
+            request.header("Cookie", cookies.entrySet().stream()
+                                            .map(cookie -> cookie.getKey() + "=" + cookie.getValue())
+                                            .collect(Collectors.joining("; ")));
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        // Kept by hand rather than through a CookieManager, which drops Secure cookies on plain HTTP
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            String pair = setCookie.split(";", 2)[0];
+            int equals = pair.indexOf('=');
+            String value = pair.substring(equals + 1);
+            if (value.isEmpty() || setCookie.toLowerCase().contains("max-age=0")) {
+                cookies.remove(pair.substring(0, equals));
+            } else {
+                cookies.put(pair.substring(0, equals), value);
+            }
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.build().uri().getPath() + " returned " + response.statusCode()
+                                            + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private String origin() {
+        return root.getProtocol() + "://" + root.getHost() + ":" + root.getPort();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
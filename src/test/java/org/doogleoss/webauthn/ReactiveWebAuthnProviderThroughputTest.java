@@ -0,0 +1,23 @@
+package org.doogleoss.webauthn;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(ReactiveWebAuthnProviderThroughputTest.ReactiveProvider.class)
+@Tag("benchmark")
+class ReactiveWebAuthnProviderThroughputTest extends WebAuthnProviderThroughputTest {
+    // Same workload against ReactiveWebAuthnSetup
+
+    public static class ReactiveProvider implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("luxe.webauthn.provider", "reactive");
+        }
+    }
+}
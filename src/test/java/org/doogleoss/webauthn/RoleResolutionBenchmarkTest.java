@@ -0,0 +1,96 @@
+package org.doogleoss.webauthn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import org.doogleoss.bench.Latencies;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.security.webauthn.WebAuthnUserProvider;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * {@code getRoles} is called each time an authenticated request rebuilds its
+ * security identity. Grows {@code user_role} from 1k to 100k users and times
+ * the calls for a working set of active users, through the provider and its
+ * {@link RoleCache} and with one query per call. The cached path should not
+ * depend on how many users exist.
+ */
+@QuarkusTest
+@Tag("benchmark")
+class RoleResolutionBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(RoleResolutionBenchmarkTest.class);
+
+    static final int[] POPULATIONS = {1_000, 10_000, 100_000};
+    static final int ACTIVE_USERS = 1_000;
+    static final int OPERATIONS = 20_000;
+
+    @Inject
+    WebAuthnUserProvider provider;
+
+    @Test
+    void rolesPerAuthenticatedRequest() {
+        for (int population : POPULATIONS) {
+            String prefix = UUID.randomUUID().toString().substring(0, 8) + "-";
+            seed(prefix, population);
+            assertEquals(Set.of("user", "beta", "admin"), provider.getRoles(prefix + 0));
+            assertEquals(Set.of("user", "beta"), provider.getRoles(prefix + 1));
+
+            List<String> active = new ArrayList<>(ACTIVE_USERS);
+            for (int i = 0; i < ACTIVE_USERS; i++) {
+                active.add(prefix + ThreadLocalRandom.current().nextInt(population));
+            }
+            // Active users are already cached, as after their first request
+            active.forEach(provider::getRoles);
+            LOG.info(measure(active, provider::getRoles)
+                         .summary(String.format("getRoles, cached,         %,7d users", population)));
+            LOG.info(measure(active, username -> QuarkusTransaction.requiringNew()
+                                                                   .call(() -> UserRole.rolesOf(username)))
+                         .summary(String.format("getRoles, query per call, %,7d users", population)));
+        }
+    }
+
+    private static Latencies measure(List<String> active, Consumer<String> getRoles) {
+        Latencies latencies = new Latencies(OPERATIONS);
+        latencies.start();
+        for (int i = 0; i < OPERATIONS; i++) {
+            String username = active.get(i % active.size());
+            long start = System.nanoTime();
+            getRoles.accept(username);
+            latencies.record(i, System.nanoTime() - start);
+        }
+        latencies.finish();
+        return latencies;
+    }
+
+    /**
+     * Every user gets "beta", every hundredth also "admin"
+     */
+    private static void seed(String prefix, int population) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            UserRole.getEntityManager()
+                    .createNativeQuery("insert into user_role (username, role)"
+                                       + " select ?1 || g, 'beta' from generate_series(0, ?2 - 1) g")
+                    .setParameter(1, prefix)
+                    .setParameter(2, population)
+                    .executeUpdate();
+            UserRole.getEntityManager()
+                    .createNativeQuery("insert into user_role (username, role)"
+                                       + " select ?1 || g, 'admin' from generate_series(0, ?2 - 1, 100) g")
+                    .setParameter(1, prefix)
+                    .setParameter(2, population)
+                    .executeUpdate();
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package org.doogleoss.webauthn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.doogleoss.bench.Latencies;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.security.webauthn.WebAuthnCredentialRecord;
+import io.quarkus.security.webauthn.WebAuthnUserProvider;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.inject.Inject;
+
+/**
+ * Drives {@link WebAuthnUserProvider#findByCredentialId} the way the WebAuthn
+ * extension does: from a duplicated Vert.x context per request, offloading to a
+ * worker thread when the provider is {@code @Blocking}. Each lookup first
+ * evicts its credential from the {@link CredentialCache}, so both runs measure
+ * the provider's database access rather than the shared cache in front of it.
+ * Run with {@code ./mvnw test -Pbenchmark}; compare with
+ * {@link ReactiveWebAuthnProviderThroughputTest}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+class WebAuthnProviderThroughputTest {
+
+    private static final Logger LOG = Logger.getLogger(WebAuthnProviderThroughputTest.class);
+
+    static final int CREDENTIALS = 500;
+    static final int WARMUP_OPERATIONS = 5_000;
+    static final int OPERATIONS = 50_000;
+    static final int CONCURRENCY = 256;
+
+    @Inject
+    WebAuthnUserProvider provider;
+
+    @Inject
+    CredentialCache credentialCache;
+
+    @Inject
+    Vertx vertx;
+
+    @Test
+    void findByCredentialIdThroughput() throws InterruptedException {
+        List<String> credentialIds = seedCredentials();
+        List<Context> eventLoops = new ArrayList<>();
+        for (int i = 0; i < 2 * Runtime.getRuntime().availableProcessors(); i++) {
+            eventLoops.add(vertx.getOrCreateContext());
+        }
+
+        run(credentialIds, eventLoops, new Latencies(WARMUP_OPERATIONS));
+        Latencies latencies = new Latencies(OPERATIONS);
+        int failures = run(credentialIds, eventLoops, latencies);
+
+        LOG.info(latencies.summary(providerName() + " findByCredentialId (concurrency " + CONCURRENCY + ")"));
+        assertEquals(0, failures);
+    }
+
+    private int run(List<String> credentialIds, List<Context> eventLoops, Latencies latencies)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        int total = latencies.size();
+        CountDownLatch done = new CountDownLatch(total);
+
+        latencies.start();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            int operation = i;
+            String credentialId = credentialIds.get(i % credentialIds.size());
+            Context context = VertxContext.createNewDuplicatedContext(eventLoops.get(i % eventLoops.size()));
+            long start = System.nanoTime();
+            context.runOnContext(ignored -> dispatch(context, credentialId).subscribe().with(
+                record -> {
+                    latencies.record(operation, System.nanoTime() - start);
+                    inFlight.release();
+                    done.countDown();
+                },
+                failure -> {
+                    latencies.record(operation, System.nanoTime() - start);
+                    failures.incrementAndGet();
+                    inFlight.release();
+                    done.countDown();
+                }));
+        }
+        done.await();
+        latencies.finish();
+        return failures.get();
+    }
+
+    private Uni<WebAuthnCredentialRecord> dispatch(Context context, String credentialId) {
+        credentialCache.invalidateCredential(credentialId);
+        if (provider instanceof MyWebAuthnSetup) {
+            // @Blocking providers are called on a worker thread, as the extension does
+            return Uni.createFrom().completionStage(() -> context.executeBlocking(
+                () -> provider.findByCredentialId(credentialId).await().indefinitely(), false).toCompletionStage());
+        }
+        return provider.findByCredentialId(credentialId);
+    }
+
+    private List<String> seedCredentials() {
+        String prefix = UUID.randomUUID().toString();
+        List<String> credentialIds = new ArrayList<>();
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < CREDENTIALS; i++) {
+                User user = new User();
+                user.username = prefix + "-user-" + i;
+                WebAuthnCredential credential = new WebAuthnCredential();
+                credential.credentialId = prefix + "-cred-" + i;
+                credential.publicKey = new byte[77];
+                credential.publicKeyAlgorithm = -7;
+                credential.aaguid = UUID.randomUUID();
+                credential.user = user;
+                user.webAuthnCredentials.add(credential);
+                user.persist();
+                credential.persist();
+                credentialIds.add(credential.credentialId);
+            }
+        });
+        return credentialIds;
+    }
+
+    private String providerName() {
+        return provider instanceof MyWebAuthnSetup ? "blocking" : "reactive";
+    }
+}
@@ -1,9 +1,43 @@
-import { defineConfig } from "vite";
+import { defineConfig, type Plugin } from "vite";
 import react from "@vitejs/plugin-react";
 import path from "node:path";
+import { readdirSync, readFileSync, writeFileSync } from "node:fs";
+import { brotliCompressSync, constants, gzipSync } from "node:zlib";
 import { componentTagger } from "lovable-tagger";
 import tailwindcss from "@tailwindcss/vite";
 
+const COMPRESSIBLE = /\.(html|js|mjs|css|json|map|svg|txt|xml|ico|webmanifest)$/;
+
+// Writes file.gz and file.br next to each text file of the bundle, for the
+// server to send as they are. Skips files too small to gain from it.
+const precompress = (): Plugin => {
+  let outDir = "";
+  return {
+    name: "precompress",
+    apply: "build",
+    configResolved(config) {
+      outDir = path.resolve(config.root, config.build.outDir);
+    },
+    closeBundle() {
+      for (const entry of readdirSync(outDir, { recursive: true, withFileTypes: true })) {
+        if (!entry.isFile() || !COMPRESSIBLE.test(entry.name)) continue;
+        const file = path.join(entry.parentPath, entry.name);
+        const content = readFileSync(file);
+        if (content.length < 1024) continue;
+        const gzip = gzipSync(content, { level: 9 });
+        const brotli = brotliCompressSync(content, {
+          params: {
+            [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+            [constants.BROTLI_PARAM_SIZE_HINT]: content.length,
+          },
+        });
+        if (gzip.length < content.length * 0.9) writeFileSync(`${file}.gz`, gzip);
+        if (brotli.length < content.length * 0.9) writeFileSync(`${file}.br`, brotli);
+      }
+    },
+  };
+};
+
 // https://vite.dev/config/
 export default defineConfig(({ mode }) => ({
   server: {
@@ -30,7 +64,7 @@ export default defineConfig(({ mode }) => ({
   },
   plugins: [react(), mode === "development" && componentTagger(), tailwindcss({
     optimize: { minify: false}
-  })].filter(Boolean),
+  }), precompress()].filter(Boolean),
   resolve: {
     alias: {
       "@": path.resolve(__dirname, "./src/main/js"),